@@ -0,0 +1,133 @@
+package org.vaadin.miki.superfields.itemgrid;
+
+import com.vaadin.flow.component.Component;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+/**
+ * A bounded pool of detached cell components, used by {@link ItemGrid} together with a {@link RecyclingCellGenerator}.
+ * Keeps track of how many times a component was (or was not) available when requested.
+ *
+ * @author miki
+ * @since 2020-05-20
+ */
+public class CellComponentPool implements Serializable {
+
+    /**
+     * Default maximum number of components kept in the pool.
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final Deque<Component> components = new ArrayDeque<>();
+
+    private int capacity = DEFAULT_CAPACITY;
+
+    private long hitCount = 0;
+
+    private long missCount = 0;
+
+    /**
+     * Puts a component into the pool, unless the pool is full.
+     * @param component Component to store. Must already be detached from its parent.
+     * @return {@code true} when the component was stored, {@code false} otherwise.
+     */
+    boolean offer(Component component) {
+        if(this.components.size() < this.capacity) {
+            this.components.push(component);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes a component from the pool, if there is any, and updates statistics.
+     * @return A previously stored component, if any.
+     */
+    Optional<Component> poll() {
+        final Component result = this.components.poll();
+        if(result == null)
+            this.missCount++;
+        else this.hitCount++;
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Removes all components from the pool. Does not reset statistics.
+     * @see #resetStatistics()
+     */
+    public void clear() {
+        this.components.clear();
+    }
+
+    /**
+     * Resets the number of hits and misses to zero.
+     */
+    public void resetStatistics() {
+        this.hitCount = 0;
+        this.missCount = 0;
+    }
+
+    /**
+     * Returns the number of components currently in the pool.
+     * @return Number of stored components.
+     */
+    public int size() {
+        return this.components.size();
+    }
+
+    /**
+     * Returns the maximum number of components kept in the pool.
+     * @return Capacity of the pool.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Sets the maximum number of components kept in the pool. Excess components are discarded.
+     * @param capacity Capacity. Values less than {@code 0} are replaced with {@code 0}, which turns off recycling.
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        while(this.components.size() > this.capacity)
+            this.components.pollLast();
+    }
+
+    /**
+     * Returns how many times a component was taken from the pool.
+     * @return Number of hits.
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns how many times a component was requested, but the pool was empty.
+     * @return Number of misses.
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the ratio of hits to all requests.
+     * @return A number between {@code 0} and {@code 1}; {@code 0} when there were no requests at all.
+     */
+    public double getHitRate() {
+        final long total = this.hitCount + this.missCount;
+        return total == 0 ? 0.0d : (double) this.hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "CellComponentPool{" +
+                "size=" + this.size() +
+                ", capacity=" + capacity +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                '}';
+    }
+}
@@ -0,0 +1,103 @@
+package org.vaadin.miki.superfields.itemgrid;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Stores information about a change of multiple selection in an {@link ItemGrid}.
+ * Only the difference between previous and current selection is stored, as indexes of cells.
+ *
+ * @param <T> Type of data associated with the cells.
+ * @author miki
+ * @since 2020-05-21
+ */
+public class CellMultiSelectionEvent<T> {
+
+    private final ItemGrid<T> source;
+
+    private final BitSet added;
+
+    private final BitSet removed;
+
+    private final List<T> previousItems;
+
+    private final List<T> items;
+
+    /**
+     * Creates the event.
+     * @param source Grid in which the selection changed.
+     * @param added Indexes of cells that became selected. Refer to {@code items}.
+     * @param removed Indexes of cells that are no longer selected. Refer to {@code previousItems}.
+     * @param previousItems Items in the grid before the change. In most cases these are the same as {@code items}.
+     * @param items Items in the grid after the change.
+     */
+    public CellMultiSelectionEvent(ItemGrid<T> source, BitSet added, BitSet removed, List<T> previousItems, List<T> items) {
+        this.source = source;
+        this.added = added;
+        this.removed = removed;
+        this.previousItems = previousItems;
+        this.items = items;
+    }
+
+    public ItemGrid<T> getSource() {
+        return source;
+    }
+
+    /**
+     * Returns indexes of cells that are now selected, but were not before.
+     * @return A stream of indexes, in increasing order.
+     */
+    public IntStream getAddedIndexes() {
+        return this.added.stream();
+    }
+
+    /**
+     * Returns indexes of cells that were selected before, but are not now.
+     * @return A stream of indexes, in increasing order.
+     */
+    public IntStream getRemovedIndexes() {
+        return this.removed.stream();
+    }
+
+    /**
+     * Returns items that are now selected, but were not before.
+     * @return A stream of items.
+     */
+    public Stream<T> getAddedItems() {
+        return this.getAddedIndexes().mapToObj(this.items::get);
+    }
+
+    /**
+     * Returns items that were selected before, but are not now.
+     * @return A stream of items.
+     */
+    public Stream<T> getRemovedItems() {
+        return this.getRemovedIndexes().mapToObj(this.previousItems::get);
+    }
+
+    /**
+     * Returns the number of cells that became selected.
+     * @return Number of newly selected cells.
+     */
+    public int getAddedCount() {
+        return this.added.cardinality();
+    }
+
+    /**
+     * Returns the number of cells that became deselected.
+     * @return Number of deselected cells.
+     */
+    public int getRemovedCount() {
+        return this.removed.cardinality();
+    }
+
+    @Override
+    public String toString() {
+        return "CellMultiSelectionEvent{" +
+                "added=" + added +
+                ", removed=" + removed +
+                '}';
+    }
+}
@@ -0,0 +1,17 @@
+package org.vaadin.miki.superfields.itemgrid;
+
+/**
+ * Interface for objects listening to {@link CellMultiSelectionEvent}s in {@link ItemGrid}.
+ * @param <T> Type of data associated with both the grid and the event.
+ * @author miki
+ * @since 2020-05-21
+ */
+@FunctionalInterface
+public interface CellMultiSelectionListener<T> {
+
+    /**
+     * Triggered whenever multiple selection has been changed.
+     * @param event Information about the change.
+     */
+    void cellMultiSelectionChanged(CellMultiSelectionEvent<T> event);
+}
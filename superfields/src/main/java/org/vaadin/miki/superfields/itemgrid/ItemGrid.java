@@ -1,32 +1,72 @@
 package org.vaadin.miki.superfields.itemgrid;
 
 import com.vaadin.flow.component.AbstractField;
+import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.HasComponents;
 import com.vaadin.flow.component.HasStyle;
 import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.customfield.CustomField;
+import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Span;
-import com.vaadin.flow.data.binder.HasItems;
+import com.vaadin.flow.data.binder.HasDataProvider;
+import com.vaadin.flow.data.provider.DataChangeEvent;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.dom.DomListenerRegistration;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.shared.Registration;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
 import org.vaadin.miki.markers.WithIdMixin;
 import org.vaadin.miki.markers.WithItemsMixin;
 import org.vaadin.miki.markers.WithValueMixin;
+import org.vaadin.miki.superfields.lazyload.ObservedField;
 
+import java.time.Duration;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
  * Grid of items, with defined number of columns.
  * Each cell in the grid corresponds to a single element from the underlying collection of data.
  *
- * Note: currently this is not lazy-loading the data and not reacting to changes in the underlying data set.
+ * Note: currently this is not lazy-loading the data, unless infinite scrolling is turned on with {@link #setInfiniteScroll(ItemPageLoader, int)}.
+ * Changes in the underlying data set are only tracked when {@link #setDataProvider(DataProvider)} is used.
  *
  * @param <T> Type of item stored in the grid.
  *
@@ -36,30 +76,246 @@ import java.util.stream.Stream;
 @Tag("item-grid")
 public class ItemGrid<T>
         extends CustomField<T>
-        implements HasItems<T>, HasStyle, WithItemsMixin<T, ItemGrid<T>>, WithIdMixin<ItemGrid<T>>,
+        implements HasDataProvider<T>, HasStyle, WithItemsMixin<T, ItemGrid<T>>, WithIdMixin<ItemGrid<T>>,
                    WithValueMixin<AbstractField.ComponentValueChangeEvent<CustomField<T>, T>, T, ItemGrid<T>> {
 
+    /**
+     * Defines how cells are laid out in the grid.
+     */
+    public enum LayoutMode {
+        /**
+         * Each row of cells is put into a component produced by {@link RowComponentGenerator}. This is the default.
+         */
+        ROWS,
+        /**
+         * All cells are put directly into the main container, which is a CSS grid with as many columns as {@link #getColumnCount()}.
+         * {@link RowComponentGenerator} is not used and default cells have no row or column class names (only {@code item-grid-cell}); striping is done with {@code nth-child} selectors
+         * that set the following custom CSS properties as backgrounds:
+         * {@code --item-grid-row-even-background}, {@code --item-grid-row-odd-background},
+         * {@code --item-grid-column-even-overlay} and {@code --item-grid-column-odd-overlay}.
+         */
+        CSS_GRID,
+        /**
+         * The main container becomes a scrollable viewport and only the cells in the visible rectangle (plus some extra rows and columns on each side)
+         * have components. All cells have the same, fixed size and are absolutely positioned. The browser reports scrolling to the server, which then
+         * creates components for cells that became visible and removes components of cells that are no longer needed.
+         * {@link RowComponentGenerator} is not used. The size of the viewport is the size of the grid, so make sure it is set.
+         * @see #setWindowedLayout(int, int, int)
+         */
+        WINDOWED
+    }
+
+    /**
+     * Client-side element that renders cells from a template, used when {@link #setTemplateRendering(String, ValueProvider)} is on.
+     * There are no server-side components for the cells it renders.
+     */
+    @Tag("item-grid-template-cells")
+    @JsModule("./item-grid-template-cells.js")
+    public static final class TemplateCellsElement extends Component {}
+
+    /**
+     * Generates the component of a single cell in the background. The task occupies one of {@link #getAsyncConcurrencyLimit()} slots
+     * until the cell generator returns, even when the result is no longer needed; a task cancelled before it starts frees its slot right away.
+     */
+    private final class AsyncCellTask extends FutureTask<Component> {
+
+        private final CompletableFuture<Component> result = new CompletableFuture<>();
+
+        // set by whichever comes first: running or cancelling before start
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private final UI ui;
+
+        private AsyncCellTask(CellInformation<T> cell, CellGenerator<T> generator, UI ui) {
+            super(() -> generator.generateComponent(cell.getValue(), cell.getRow(), cell.getColumn()));
+            this.ui = ui;
+        }
+
+        @Override
+        public void run() {
+            if(this.claimed.compareAndSet(false, true))
+                try {
+                    super.run();
+                }
+                finally {
+                    releaseAsyncSlot(this.ui);
+                }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if(this.claimed.compareAndSet(false, true))
+                releaseAsyncSlot(this.ui);
+            return cancelled;
+        }
+
+        @Override
+        protected void done() {
+            if(this.isCancelled())
+                this.result.cancel(false);
+            else try {
+                this.result.complete(this.get());
+            }
+            catch(ExecutionException failure) {
+                this.result.completeExceptionally(failure.getCause());
+            }
+            catch(InterruptedException interruption) {
+                Thread.currentThread().interrupt();
+                this.result.completeExceptionally(interruption);
+            }
+        }
+    }
+
     /**
      * Default number of columns.
      */
     public static final int DEFAULT_COLUMN_COUNT = 3;
 
+    /**
+     * Class name of the main container when {@link LayoutMode#CSS_GRID} is used.
+     */
+    public static final String CSS_GRID_CLASS_NAME = "item-grid-css-grid";
+
     /**
      * Style that by default indicates a selected item.
      * This is only needed when default {@link #setCellSelectionHandler(CellSelectionHandler)} is used.
      */
     public static final String DEFAULT_SELECTED_ITEM_CLASS_NAME = "item-grid-selected-cell";
 
+    /**
+     * Class name of the {@link ObservedField} placed after the last row when infinite scrolling is on.
+     */
+    public static final String INFINITE_SCROLL_SENTINEL_CLASS_NAME = "item-grid-infinite-scroll-sentinel";
+
+    /**
+     * Class name of placeholder cells produced by {@link #defaultPlaceholderGenerator(Object, int, int)}.
+     */
+    public static final String PLACEHOLDER_CELL_CLASS_NAME = "item-grid-placeholder-cell";
+
+    /**
+     * Default maximum number of cells generated at the same time when asynchronous cell generation is on.
+     */
+    public static final int DEFAULT_ASYNC_CONCURRENCY_LIMIT = 4;
+
+    /**
+     * Default time after which asynchronous generation of a cell is abandoned.
+     */
+    public static final Duration DEFAULT_ASYNC_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * Default width and height (in pixels) of a cell when {@link LayoutMode#WINDOWED} is used.
+     */
+    public static final int DEFAULT_WINDOW_CELL_SIZE = 100;
+
+    /**
+     * Default number of extra rows and columns with components on each side of the visible area when {@link LayoutMode#WINDOWED} is used.
+     */
+    public static final int DEFAULT_WINDOW_OVERSCAN = 2;
+
+    /**
+     * How often (in milliseconds) scrolling is reported to the server when {@link LayoutMode#WINDOWED} is used.
+     */
+    private static final int WINDOW_SCROLL_THROTTLE = 100;
+
+    /**
+     * Attribute of each cell component that holds the index of the cell.
+     */
+    public static final String CELL_INDEX_ATTRIBUTE = "data-item-grid-index";
+
+    /**
+     * Attribute of the main container present when selection is handled in the browser; its value is the number of columns.
+     */
+    private static final String CLIENT_SIDE_SELECTION_ATTRIBUTE = "item-grid-client-selection";
+
+    /**
+     * Time (in milliseconds) without further changes after which selection made in the browser is sent to the server.
+     */
+    private static final int CLIENT_SIDE_SELECTION_DEBOUNCE = 300;
+
+    /**
+     * Script that handles selection and keyboard navigation in the browser. {@code this} is the main container, {@code $0} is the class name of selected cells.
+     * Each cell is selected (or deselected) by clicking or pressing enter or space, arrows, home and end move the focus between cells.
+     * Changes are reported with {@code item-grid-select} event, with the index of the selected cell ({@code -1} when there is none).
+     */
+    private static final String CLIENT_SIDE_SELECTION_SCRIPT =
+            "const grid = this;" +
+            "if (grid.__itemGridClientSelection) return;" +
+            "grid.__itemGridClientSelection = true;" +
+            "const active = () => grid.hasAttribute('" + CLIENT_SIDE_SELECTION_ATTRIBUTE + "');" +
+            "const cellOf = element => {" +
+            "  const cell = element && element.closest ? element.closest('[" + CELL_INDEX_ATTRIBUTE + "]') : null;" +
+            "  return cell && grid.contains(cell) ? cell : null;" +
+            "};" +
+            "const select = cell => {" +
+            "  const previous = grid.querySelector('.' + $0);" +
+            "  if (previous) previous.classList.remove($0);" +
+            "  const index = previous === cell ? -1 : parseInt(cell.getAttribute('" + CELL_INDEX_ATTRIBUTE + "'));" +
+            "  if (index >= 0) cell.classList.add($0);" +
+            "  grid.dispatchEvent(new CustomEvent('item-grid-select', {detail: {index: index}}));" +
+            "};" +
+            "const focus = cell => { cell.tabIndex = -1; cell.focus(); };" +
+            "grid.addEventListener('click', event => {" +
+            "  const cell = cellOf(event.target);" +
+            "  if (active() && cell) { focus(cell); select(cell); }" +
+            "});" +
+            "grid.addEventListener('keydown', event => {" +
+            "  if (!active()) return;" +
+            "  const current = cellOf(document.activeElement);" +
+            "  const index = current ? parseInt(current.getAttribute('" + CELL_INDEX_ATTRIBUTE + "')) : -1;" +
+            "  const columns = parseInt(grid.getAttribute('" + CLIENT_SIDE_SELECTION_ATTRIBUTE + "')) || 1;" +
+            "  const count = grid.querySelectorAll('[" + CELL_INDEX_ATTRIBUTE + "]').length;" +
+            "  let target;" +
+            "  switch (event.key) {" +
+            "    case 'ArrowLeft': target = index - 1; break;" +
+            "    case 'ArrowRight': target = index + 1; break;" +
+            "    case 'ArrowUp': target = index - columns; break;" +
+            "    case 'ArrowDown': target = index + columns; break;" +
+            "    case 'Home': target = 0; break;" +
+            "    case 'End': target = count - 1; break;" +
+            "    case 'Enter': case ' ': if (current) { select(current); event.preventDefault(); } return;" +
+            "    default: return;" +
+            "  }" +
+            "  const next = grid.querySelector('[" + CELL_INDEX_ATTRIBUTE + "=\"' + (index < 0 ? 0 : target) + '\"]');" +
+            "  if (next) { focus(next); event.preventDefault(); }" +
+            "});";
+
+    /**
+     * Event data that tells whether or not shift key was pressed when clicking a cell.
+     */
+    private static final String SHIFT_KEY_EVENT_DATA = "event.shiftKey";
+
+    /**
+     * Event data with the index of a cell, sent by {@link TemplateCellsElement} or when selection is handled in the browser.
+     */
+    private static final String CELL_INDEX_EVENT_DATA = "event.detail.index";
+
+    /**
+     * Event data that tells whether or not shift key was pressed when clicking a cell in {@link TemplateCellsElement}.
+     */
+    private static final String TEMPLATE_SHIFT_KEY_EVENT_DATA = "event.detail.shiftKey";
+
     /**
      * Default {@link CellSelectionHandler}. It adds or removes {@link #DEFAULT_SELECTED_ITEM_CLASS_NAME} to the element of the component.
      * @param event Event.
      * @param <V> Value type.
      */
     public static <V> void defaultCellSelectionHandler(CellSelectionEvent<V> event) {
-        if(event.isSelected())
-            event.getCellInformation().getComponent().getElement().getClassList().add(DEFAULT_SELECTED_ITEM_CLASS_NAME);
+        markAsSelected(event.getCellInformation().getComponent(), event.isSelected());
+    }
+
+    /**
+     * Adds or removes {@link #DEFAULT_SELECTED_ITEM_CLASS_NAME} to the element of the component.
+     * Internal use only.
+     * @param component Component to change.
+     * @param selected Whether or not the component is selected.
+     * @see #defaultCellSelectionHandler(CellSelectionEvent)
+     */
+    private static void markAsSelected(Component component, boolean selected) {
+        if(selected)
+            component.getElement().getClassList().add(DEFAULT_SELECTED_ITEM_CLASS_NAME);
         else
-            event.getCellInformation().getComponent().getElement().getClassList().remove(DEFAULT_SELECTED_ITEM_CLASS_NAME);
+            component.getElement().getClassList().remove(DEFAULT_SELECTED_ITEM_CLASS_NAME);
     }
 
     /**
@@ -86,6 +342,20 @@ public class ItemGrid<T>
         return result;
     }
 
+    /**
+     * Default generator of placeholder cells, used when asynchronous cell generation is on. It produces an empty {@link Span}.
+     * @param item Item to generate placeholder for.
+     * @param row Row in the grid.
+     * @param col Column in the grid.
+     * @param <V> Item type.
+     * @return A {@link Span} with {@link #PLACEHOLDER_CELL_CLASS_NAME}.
+     */
+    public static <V> Component defaultPlaceholderGenerator(V item, int row, int col) {
+        Span result = new Span();
+        result.addClassNames("item-grid-cell", PLACEHOLDER_CELL_CLASS_NAME);
+        return result;
+    }
+
     /**
      * Default {@link RowComponentGenerator}. It produces a {@link Div}.
      * @param rowNumber Number of the row to create.
@@ -97,6 +367,48 @@ public class ItemGrid<T>
         return row;
     }
 
+    /**
+     * Cell generator used instead of {@link #defaultCellGenerator(Object, int, int)} when {@link LayoutMode#CSS_GRID} is used.
+     * It produces a {@link Span} with only the {@code item-grid-cell} class name, as striping is done by CSS selectors.
+     * @param item Item to generate component for.
+     * @param <V> Item type.
+     * @return A {@link Span}: {@code <span class="item-grid-cell">item</span>}.
+     */
+    private static <V> Component defaultCssGridCellGenerator(V item) {
+        final Span result = new Span(String.valueOf(item));
+        result.addClassName("item-grid-cell");
+        return result;
+    }
+
+    /**
+     * Generates striping rules for a CSS grid with given number of columns.
+     * Cells in even and odd rows and columns are matched with {@code nth-child} selectors, so that no class names are needed on cells.
+     * @param columnCount Number of columns.
+     * @return CSS rules.
+     */
+    private static String generateCssGridStyles(int columnCount) {
+        final String prefix = "item-grid > ." + CSS_GRID_CLASS_NAME + "." + CSS_GRID_CLASS_NAME + "-" + columnCount + " > ";
+        final StringBuilder rowEven = new StringBuilder();
+        final StringBuilder rowOdd = new StringBuilder();
+        for(int cell = 1; cell <= columnCount; cell++) {
+            rowEven.append(rowEven.length() == 0 ? "" : ", ").append(prefix).append(":nth-child(").append(2 * columnCount).append("n+").append(cell).append(")");
+            rowOdd.append(rowOdd.length() == 0 ? "" : ", ").append(prefix).append(":nth-child(").append(2 * columnCount).append("n+").append(columnCount + cell).append(")");
+        }
+        final StringBuilder columnEven = new StringBuilder();
+        final StringBuilder columnOdd = new StringBuilder();
+        for(int column = 0; column < columnCount; column++) {
+            final StringBuilder builder = column % 2 == 0 ? columnEven : columnOdd;
+            builder.append(builder.length() == 0 ? "" : ", ").append(prefix).append(":nth-child(").append(columnCount).append("n+").append(column + 1).append(")");
+        }
+        final StringBuilder result = new StringBuilder();
+        result.append(rowEven).append(" {background-color: var(--item-grid-row-even-background, transparent);}\n");
+        result.append(rowOdd).append(" {background-color: var(--item-grid-row-odd-background, transparent);}\n");
+        result.append(columnEven).append(" {background-image: linear-gradient(var(--item-grid-column-even-overlay, transparent), var(--item-grid-column-even-overlay, transparent));}\n");
+        if(columnOdd.length() > 0)
+            result.append(columnOdd).append(" {background-image: linear-gradient(var(--item-grid-column-odd-overlay, transparent), var(--item-grid-column-odd-overlay, transparent));}\n");
+        return result.toString();
+    }
+
     /**
      * Defines whether a number is even or odd. Used to vary class names of various elements.
      * Internal use only.
@@ -113,16 +425,110 @@ public class ItemGrid<T>
 
     private final List<CellInformation<T>> cells = new ArrayList<>();
 
+    private final List<HasComponents> rowContainers = new ArrayList<>();
+
+    private final Map<Object, Integer> indexesOfIds = new HashMap<>();
+
+    private final Map<Component, Registration> clickRegistrations = new HashMap<>();
+
+    private final CellComponentPool cellComponentPool = new CellComponentPool();
+
+    private final BitSet selectedIndexes = new BitSet();
+
+    private final List<CellMultiSelectionListener<T>> multiSelectionListeners = new ArrayList<>();
+
     private CellInformation<T> markedAsSelected;
 
     private CellGenerator<T> cellGenerator;
 
+    private CellGenerator<T> generatorOfCells;
+
+    private boolean defaultCellGeneratorUsed;
+
+    private LayoutMode layoutMode = LayoutMode.ROWS;
+
+    private Element cssGridStyles;
+
     private CellSelectionHandler<T> cellSelectionHandler;
 
+    private boolean defaultCellSelectionHandlerUsed;
+
+    private boolean multiSelection = false;
+
+    private int selectionAnchor = -1;
+
     private RowComponentGenerator<?> rowComponentGenerator = ItemGrid::defaultRowComponentGenerator;
 
     private int columnCount = DEFAULT_COLUMN_COUNT;
 
+    private DataProvider<T, ?> dataProvider;
+
+    private Registration dataProviderListenerRegistration;
+
+    private ItemPageLoader<T> pageLoader;
+
+    private int pageSize;
+
+    private boolean allPagesLoaded = true;
+
+    private ObservedField infiniteScrollSentinel;
+
+    private transient Executor asyncExecutor;
+
+    private int asyncConcurrencyLimit = DEFAULT_ASYNC_CONCURRENCY_LIMIT;
+
+    private Duration asyncTimeout = DEFAULT_ASYNC_TIMEOUT;
+
+    private CellGenerator<T> placeholderGenerator = ItemGrid::defaultPlaceholderGenerator;
+
+    private CellGenerator<T> fallbackCellGenerator = ItemGrid::defaultCellGenerator;
+
+    private final Deque<CellInformation<T>> pendingAsyncCells = new ArrayDeque<>();
+
+    private final Map<CellInformation<T>, AsyncCellTask> runningAsyncCells = new LinkedHashMap<>();
+
+    // released by executor threads when cell generators return
+    private final AtomicInteger occupiedAsyncSlots = new AtomicInteger();
+
+    private int asyncGeneration = 0;
+
+    private TemplateCellsElement templateCells;
+
+    private ValueProvider<T, JsonObject> templateValueProvider;
+
+    // range of cell indexes with items not yet sent to the browser; nothing when the start is Integer.MAX_VALUE
+    private int templateChangedFrom = Integer.MAX_VALUE;
+
+    private int templateChangedTo = 0;
+
+    private boolean templateSelectionChanged = false;
+
+    private boolean templateUpdateScheduled = false;
+
+    private int windowCellWidth = DEFAULT_WINDOW_CELL_SIZE;
+
+    private int windowCellHeight = DEFAULT_WINDOW_CELL_SIZE;
+
+    private int windowOverscan = DEFAULT_WINDOW_OVERSCAN;
+
+    private final BitSet materializedIndexes = new BitSet();
+
+    private Div windowSpacer;
+
+    private DomListenerRegistration windowScrollRegistration;
+
+    private double viewportLeft = 0;
+
+    private double viewportTop = 0;
+
+    private double viewportWidth = 0;
+
+    private double viewportHeight = 0;
+
+    private boolean clientSideSelection = false;
+
+    private DomListenerRegistration clientSideSelectionRegistration;
+
     /**
      * Creates the component with given items, using default {@link CellGenerator} and {@link CellSelectionHandler}.
      * @param items Items to add to the component.
@@ -188,291 +594,2002 @@ public class ItemGrid<T>
      * Repaints all current items.
      */
     protected final void repaintAllItems() {
-        this.repaintAllItems(this.cells.stream().map(CellInformation::getValue).collect(Collectors.toList()));
+        this.repaintAllItems(this.getItems());
     }
 
     /**
-     * Repaints all items in the collection.
-     * @param itemCollection Collection with items to repaint.
+     * Returns items currently displayed in the grid, in the order of cells.
+     * @return A list of items. Changes to the resulting object do not affect the grid.
      */
-    protected void repaintAllItems(Collection<T> itemCollection) {
-        final T currentValue = this.getValue();
-
-        this.contents.removeAll();
-        this.cells.clear();
-
-        // do all items again
-        HasComponents rowContainer = this.getRowComponentGenerator().generateRowComponent(0);
-
-        int row = 0;
-        int column = 0;
+    protected List<T> getItems() {
+        return this.cells.stream().map(CellInformation::getValue).collect(Collectors.toList());
+    }
 
-        for(T item: itemCollection) {
-            final boolean selected = Objects.equals(item, currentValue);
-            final Component itemComponent = this.getCellGenerator().generateComponent(item, row, column);
-            CellInformation<T> cellInformation = new CellInformation<>(row, column, item, itemComponent);
-            this.getCellSelectionHandler().cellSelectionChanged(new CellSelectionEvent<>(cellInformation, selected));
-            this.registerClickEvents(cellInformation);
+    /**
+     * Returns a read-only view of items currently in the grid. The view reflects further changes to the grid.
+     * @return A list backed by the cells of this grid.
+     */
+    private List<T> getItemsView() {
+        return new AbstractList<T>() {
+            @Override
+            public T get(int index) {
+                return cells.get(index).getValue();
+            }
 
-            if(selected)
-                this.markedAsSelected = cellInformation;
-            this.cells.add(cellInformation);
-
-            rowContainer.add(itemComponent);
-            column+=1;
-            if(column == this.getColumnCount()) {
-                column = 0;
-                row+=1;
-                this.contents.add((Component)rowContainer);
-                rowContainer = this.getRowComponentGenerator().generateRowComponent(row);
+            @Override
+            public int size() {
+                return cells.size();
             }
-        }
-        // add last row, unless it was full
-        if(column != 0)
-            this.contents.add((Component)rowContainer);
+        };
     }
 
     /**
-     * Adds a click listener to the dom element of the {@link Component} inside given {@link CellInformation}.
-     * This click listener will select or deselect a cell and update the value of this grid.
-     *
-     * Note: when overriding this method, please remember to call {@code super}.
-     * @param information Information. Never {@code null}.
+     * Returns the index of a cell.
+     * @param information Information about the cell.
+     * @return Index of the cell, computed from its row and column.
      */
-    protected void registerClickEvents(CellInformation<T> information) {
-        information.getComponent().getElement().addEventListener("click", event -> this.clickCellAndUpdateValue(information));
+    private int indexOf(CellInformation<T> information) {
+        return information.getRow() * this.getColumnCount() + information.getColumn();
     }
 
-    private void clickCellAndUpdateValue(CellInformation<T> information) {
-        this.clickCell(information);
-        this.updateValue();
+    /**
+     * Releases all cells: removes their click listeners and forgets them. Does not remove the components from the layout.
+     * If the cells were generated by current {@link CellGenerator} and it is a {@link RecyclingCellGenerator}, the components are detached and put into {@link #getCellComponentPool()}.
+     */
+    private void releaseCells() {
+        this.cancelAsyncCellGeneration(false);
+        final boolean recycling = this.generatorOfCells == this.getCellGenerator() && this.getCellGenerator() instanceof RecyclingCellGenerator;
+        for(CellInformation<T> cell: this.cells) {
+            Optional.ofNullable(this.clickRegistrations.remove(cell.getComponent())).ifPresent(Registration::remove);
+            if(recycling && cell.getComponent() != null) {
+                cell.getComponent().getElement().removeFromParent();
+                this.cellComponentPool.offer(cell.getComponent());
+            }
+        }
+        this.clickRegistrations.clear();
+        this.cells.clear();
+        this.materializedIndexes.clear();
+        this.markedAsSelected = null;
     }
 
     /**
-     * Reacts to cell being clicked in the browser.
-     * @param information Information about the clicked cell.
+     * Produces a component for a cell. Reuses a component from {@link #getCellComponentPool()} when {@link #getCellGenerator()} is a {@link RecyclingCellGenerator}.
+     * When asynchronous cell generation is on, a placeholder is returned and the actual component is generated later.
+     * @param item Item to generate component for.
+     * @param row Row of the cell.
+     * @param column Column of the cell.
+     * @return A component. Never {@code null}.
      */
-    protected void clickCell(CellInformation<T> information) {
-        // if there is no selection at all, mark and remember component as selected
-        if(this.markedAsSelected == null) {
-            this.markedAsSelected = information;
-            this.getCellSelectionHandler().cellSelectionChanged(new CellSelectionEvent<>(this.markedAsSelected, true));
-        }
-        // if the same value is selected, deselect it and do nothing else
-        else if(Objects.equals(this.markedAsSelected.getValue(), information.getValue())) {
-            this.getCellSelectionHandler().cellSelectionChanged(new CellSelectionEvent<>(information, false));
-            this.markedAsSelected = null;
+    @SuppressWarnings("unchecked")
+    private Component generateCellComponent(T item, int row, int column) {
+        if(this.getCellGenerator() instanceof RecyclingCellGenerator) {
+            final RecyclingCellGenerator<T, Component> generator = (RecyclingCellGenerator<T, Component>) this.getCellGenerator();
+            final Component component = this.cellComponentPool.poll().orElseGet(generator::create);
+            generator.bind(component, item, row, column);
+            return component;
         }
-        // otherwise deselect existing value and select new value
-        else {
-            this.getCellSelectionHandler().cellSelectionChanged(new CellSelectionEvent<>(this.markedAsSelected, false));
-            this.markedAsSelected = information;
-            this.getCellSelectionHandler().cellSelectionChanged(new CellSelectionEvent<>(this.markedAsSelected, true));
+        else if(this.defaultCellGeneratorUsed && this.layoutMode == LayoutMode.CSS_GRID)
+            return defaultCssGridCellGenerator(item);
+        else if(this.asyncExecutor != null && !this.defaultCellGeneratorUsed) {
+            final Component placeholder = this.getPlaceholderGenerator().generateComponent(item, row, column);
+            this.pendingAsyncCells.add(new CellInformation<>(row, column, item, placeholder));
+            this.startAsyncCellGeneration();
+            return placeholder;
         }
+        return this.getCellGenerator().generateComponent(item, row, column);
     }
 
-    @Override
-    protected T generateModelValue() {
-        return this.markedAsSelected == null ? this.getEmptyValue() : this.markedAsSelected.getValue();
-    }
+    /**
+     * Repaints all items in the collection.
+     * @param itemCollection Collection with items to repaint.
+     */
+    protected void repaintAllItems(Collection<T> itemCollection) {
+        final T currentValue = this.getValue();
+        // multiple selection is preserved by values
+        final List<T> previousItems = this.multiSelection && !this.selectedIndexes.isEmpty() ? this.getItems() : null;
+        final Set<T> selectedValues = previousItems == null ? Collections.emptySet() : this.selectedIndexes.stream().mapToObj(previousItems::get).collect(Collectors.toSet());
+        final BitSet previousSelection = (BitSet) this.selectedIndexes.clone();
+        this.selectedIndexes.clear();
 
-    @Override
-    protected void setPresentationValue(T t) {
-        if(Objects.equals(t, this.getEmptyValue()) && this.markedAsSelected != null)
-            this.clickCell(this.markedAsSelected);
-        else if(!Objects.equals(t, this.getEmptyValue()))
-            this.getCellInformation(t).ifPresent(this::clickCell);
+        this.releaseCells();
+        this.contents.removeAll();
+        this.rowContainers.clear();
+        if(this.windowSpacer != null) {
+            this.contents.add(this.windowSpacer);
+            this.updateWindowSpacer(itemCollection.size());
+        }
+        // the sentinel may have been removed together with the contents or may need a different place after changing the layout
+        this.placeInfiniteScrollSentinel();
+        // cells rendered from a template have no components to recycle
+        this.generatorOfCells = this.templateCells == null ? this.getCellGenerator() : null;
+        if(this.templateCells != null)
+            this.markTemplateCellsChanged(0, Integer.MAX_VALUE);
+
+        // do all items again
+        final List<T> items = new ArrayList<>(itemCollection);
+        final CellGenerator<T> generator = this.prepareCells(items, 0);
+        for(T item: items)
+            this.appendCell(item, this.multiSelection ? selectedValues.contains(item) : Objects.equals(item, currentValue), generator);
+
+        this.updateIndexesOfIds();
+        if(this.selectionAnchor >= this.cells.size())
+            this.selectionAnchor = -1;
+        if(previousItems != null)
+            this.fireCellMultiSelectionDifference(previousItems, previousSelection, item -> item);
     }
 
     /**
-     * Sets new {@link CellGenerator}. Repaints all items.
-     * @param cellGenerator Cell generator. If {@code null} is passed, {@link #defaultCellGenerator(Object, int, int)} will be used.
+     * Fires {@link CellMultiSelectionEvent} after the items have changed, with only the items that became selected or deselected.
+     * Items that are selected both before and after the change are in neither set. Nothing is fired when there is no difference.
+     * @param previousItems Items before the change.
+     * @param previousSelection Indexes of cells selected before the change; they refer to {@code previousItems}.
+     * @param identity Tells which items are the same, before and after the change.
      */
-    public void setCellGenerator(CellGenerator<T> cellGenerator) {
-        this.cellGenerator = Optional.ofNullable(cellGenerator).orElse(ItemGrid::defaultCellGenerator);
-        this.repaintAllItems();
+    private void fireCellMultiSelectionDifference(List<T> previousItems, BitSet previousSelection, Function<T, Object> identity) {
+        final List<T> items = this.getItemsView();
+        final Set<Object> previouslySelected = previousSelection.stream().mapToObj(index -> identity.apply(previousItems.get(index))).collect(Collectors.toSet());
+        final Set<Object> selected = this.selectedIndexes.stream().mapToObj(index -> identity.apply(items.get(index))).collect(Collectors.toSet());
+        final BitSet added = new BitSet();
+        this.selectedIndexes.stream().filter(index -> !previouslySelected.contains(identity.apply(items.get(index)))).forEach(added::set);
+        final BitSet removed = new BitSet();
+        previousSelection.stream().filter(index -> !selected.contains(identity.apply(previousItems.get(index)))).forEach(removed::set);
+        if(!added.isEmpty() || !removed.isEmpty())
+            this.fireCellMultiSelectionEvent(new CellMultiSelectionEvent<>(this, added, removed, previousItems, items));
     }
 
     /**
-     * Returns current {@link CellGenerator} used to generate cells.
-     * @return A {@link CellGenerator}. Never {@code null}.
+     * Prepares generation of many cells at once. When {@link #getCellGenerator()} is a {@link TwoPhaseCellGenerator},
+     * models of all cells are prepared in parallel and the returned generator only renders them.
+     * Nothing is prepared in advance when {@link LayoutMode#WINDOWED} is used, as most cells will not have components,
+     * when cells are rendered from a template, as there are no components at all,
+     * or when asynchronous cell generation is on, as then each cell is generated (both phases) in the background.
+     * @param items Items that will be put in consecutive cells.
+     * @param firstIndex Index of the cell of the first item.
+     * @return A {@link CellGenerator} to produce components of these cells with. Must only be used for these items, in their cells.
      */
-    public CellGenerator<T> getCellGenerator() {
-        return this.cellGenerator;
+    @SuppressWarnings("unchecked")
+    private CellGenerator<T> prepareCells(List<T> items, int firstIndex) {
+        if(this.templateCells == null && this.layoutMode != LayoutMode.WINDOWED && this.asyncExecutor == null && this.getCellGenerator() instanceof TwoPhaseCellGenerator && !(this.getCellGenerator() instanceof RecyclingCellGenerator)) {
+            final TwoPhaseCellGenerator<T, Object> generator = (TwoPhaseCellGenerator<T, Object>) this.getCellGenerator();
+            final int columns = this.getColumnCount();
+            final List<Object> models = IntStream.range(0, items.size()).parallel()
+                    .mapToObj(index -> generator.prepare(items.get(index), (firstIndex + index) / columns, (firstIndex + index) % columns))
+                    .collect(Collectors.toList());
+            return (item, row, column) -> generator.render(models.get(row * columns + column - firstIndex));
+        }
+        return this::generateCellComponent;
     }
 
     /**
-     * Chains {@link #setCellGenerator(CellGenerator)} and returns itself.
-     * @param generator {@link CellGenerator} to use.
-     * @return This.
-     * @see #setCellGenerator(CellGenerator)
+     * Creates a new cell for an item and puts it after the last cell. A new row is started when needed.
+     * @param item Item to add.
+     * @param selected Whether or not the cell should be selected.
+     * @return Information about the new cell.
      */
-    public ItemGrid<T> withCellGenerator(CellGenerator<T> generator) {
-        this.setCellGenerator(generator);
-        return this;
+    private CellInformation<T> appendCell(T item, boolean selected) {
+        return this.appendCell(item, selected, this::generateCellComponent);
     }
 
     /**
-     * Sets new {@link CellSelectionHandler}. Repaints all items.
-     * @param cellSelectionHandler Cell selection handler. If {@code null} is passed, {@link #defaultCellSelectionHandler(CellSelectionEvent)} will be used.
+     * Creates a new cell for an item, using given generator, and puts it after the last cell. A new row is started when needed.
+     * @param item Item to add.
+     * @param selected Whether or not the cell should be selected.
+     * @param generator Generator to produce the component with.
+     * @return Information about the new cell.
+     * @see #prepareCells(List, int)
      */
-    public void setCellSelectionHandler(CellSelectionHandler<T> cellSelectionHandler) {
-        this.cellSelectionHandler = Optional.ofNullable(cellSelectionHandler).orElse(ItemGrid::defaultCellSelectionHandler);
-        this.repaintAllItems();
+    private CellInformation<T> appendCell(T item, boolean selected, CellGenerator<T> generator) {
+        final int index = this.cells.size();
+        final int row = index / this.getColumnCount();
+        final int column = index % this.getColumnCount();
+        final Component itemComponent = this.templateCells == null && this.layoutMode != LayoutMode.WINDOWED ? generator.generateComponent(item, row, column) : null;
+        final CellInformation<T> cellInformation = new CellInformation<>(row, column, item, itemComponent);
+        this.applyCellSelection(cellInformation, selected);
+
+        if(selected && this.multiSelection)
+            this.selectedIndexes.set(index);
+        else if(selected)
+            this.markedAsSelected = cellInformation;
+        this.cells.add(cellInformation);
+
+        if(this.templateCells != null) {
+            this.markTemplateCellsChanged(index, index + 1);
+            return cellInformation;
+        }
+        else if(this.layoutMode == LayoutMode.WINDOWED) {
+            if(column == 0)
+                this.updateWindowSpacer(this.cells.size());
+            return this.isInWindow(row, column) ? this.materializeCell(index, generator) : cellInformation;
+        }
+        this.registerClickEvents(cellInformation);
+        if(this.layoutMode == LayoutMode.ROWS) {
+            if(column == 0) {
+                final HasComponents rowContainer = this.getRowComponentGenerator().generateRowComponent(row);
+                this.rowContainers.add(rowContainer);
+                this.contents.add((Component) rowContainer);
+            }
+            this.rowContainers.get(row).add(itemComponent);
+        }
+        else this.contents.add(itemComponent);
+        return cellInformation;
     }
 
     /**
-     * Returns current {@link CellSelectionHandler} used to react to selection changes.
-     * @return A {@link CellSelectionHandler}. Never {@code null}.
+     * Removes the click listener and the component of a cell from the layout. The component is put into {@link #getCellComponentPool()}
+     * when it was generated by current {@link CellGenerator} and that is a {@link RecyclingCellGenerator}. Does not change the list of cells.
+     * @param cell Cell to release.
      */
-    public CellSelectionHandler<T> getCellSelectionHandler() {
-        return this.cellSelectionHandler;
+    private void releaseCellComponent(CellInformation<T> cell) {
+        Optional.ofNullable(this.clickRegistrations.remove(cell.getComponent())).ifPresent(Registration::remove);
+        if(cell.getComponent() != null) {
+            cell.getComponent().getElement().removeFromParent();
+            if(this.generatorOfCells == this.getCellGenerator() && this.getCellGenerator() instanceof RecyclingCellGenerator)
+                this.cellComponentPool.offer(cell.getComponent());
+        }
     }
 
     /**
-     * Chains {@link #setCellSelectionHandler(CellSelectionHandler)} and returns itself.
-     * @param handler {@link CellSelectionHandler} to use.
-     * @return This.
-     * @see #setCellSelectionHandler(CellSelectionHandler)
+     * Updates the component of a cell that is moved to a different position: a {@link RecyclingCellGenerator} binds it again,
+     * default cells get new striping class names and windowed cells are positioned again. Nothing happens when the position does not change.
+     * @param previous Information about the cell before moving.
+     * @param row New row.
+     * @param column New column.
      */
-    public ItemGrid<T> withCellSelectionHandler(CellSelectionHandler<T> handler) {
-        this.setCellSelectionHandler(handler);
-        return this;
+    @SuppressWarnings("unchecked")
+    private void moveCellComponent(CellInformation<T> previous, int row, int column) {
+        final Component component = previous.getComponent();
+        if(component == null || (previous.getRow() == row && previous.getColumn() == column))
+            return;
+        if(this.generatorOfCells == this.getCellGenerator() && this.getCellGenerator() instanceof RecyclingCellGenerator)
+            ((RecyclingCellGenerator<T, Component>) this.getCellGenerator()).bind(component, previous.getValue(), row, column);
+        else if(this.defaultCellGeneratorUsed && this.layoutMode != LayoutMode.CSS_GRID) {
+            component.getElement().getClassList().removeIf(name -> name.startsWith("item-grid-cell-column-") || name.startsWith("item-grid-cell-row-"));
+            component.getElement().getClassList().add("item-grid-cell-column-"+evenOrOdd(column));
+            component.getElement().getClassList().add("item-grid-cell-row-"+evenOrOdd(row));
+        }
+        if(this.layoutMode == LayoutMode.WINDOWED)
+            this.positionWindowedCell(component, row, column);
     }
 
     /**
-     * Returns the number of rows (even incomplete) currently in the grid.
-     * @return The number of rows. This will change if new items are added or the number of columns changes.
-     * @see #setItems(Collection)
-     * @see #setItems(Object[])
-     * @see #setItems(Stream)
-     * @see #setColumnCount(int)
+     * Makes sure that the children of given element are exactly the given components, in the given order.
+     * Children already in the right place are not touched.
+     * @param parent Element to update.
+     * @param components Components that should be its children.
      */
-    public long getRowCount() {
-        return ((Component)this.contents).getChildren().count();
+    private static void arrangeChildren(Element parent, List<Component> components) {
+        for(int position = 0; position < components.size(); position++) {
+            final Element child = components.get(position).getElement();
+            if(position >= parent.getChildCount() || !parent.getChild(position).equals(child)) {
+                // all children before the position are already in place, so removing the child does not shift the position
+                child.removeFromParent();
+                parent.insertChild(position, child);
+            }
+        }
+        while(parent.getChildCount() > components.size())
+            parent.removeChild(parent.getChildCount() - 1);
     }
 
     /**
-     * Returns the current number of columns.
-     * @return The number of columns in the grid.
+     * Removes the last cell. The last row is removed when it becomes empty.
      */
-    public int getColumnCount() {
+    private void removeLastCell() {
+        final int index = this.cells.size() - 1;
+        final CellInformation<T> cell = this.cells.remove(index);
+        this.selectedIndexes.clear(index);
+        if(this.markedAsSelected == cell)
+            this.markedAsSelected = null;
+        if(this.templateCells != null) {
+            // only the number of items changes
+            this.markTemplateCellsChanged(index, index);
+            return;
+        }
+        this.releaseCellComponent(cell);
+        if(this.layoutMode == LayoutMode.WINDOWED) {
+            this.materializedIndexes.clear(index);
+            if(cell.getColumn() == 0)
+                this.updateWindowSpacer(this.cells.size());
+        }
+        else if(this.layoutMode == LayoutMode.ROWS && cell.getColumn() == 0)
+            ((Component) this.rowContainers.remove(cell.getRow())).getElement().removeFromParent();
+    }
+
+    /**
+     * Replaces the item in the cell with given index. The component of the cell is rebound when {@link #getCellGenerator()} is a {@link RecyclingCellGenerator},
+     * otherwise a new component is generated and put in place of the previous one.
+     * @param index Index of the cell.
+     * @param item New item.
+     * @param selected Whether or not the cell should be selected.
+     * @return Information about the cell.
+     */
+    @SuppressWarnings("unchecked")
+    private CellInformation<T> replaceCell(int index, T item, boolean selected) {
+        final CellInformation<T> previous = this.cells.get(index);
+        Optional.ofNullable(this.clickRegistrations.remove(previous.getComponent())).ifPresent(Registration::remove);
+        final Component itemComponent;
+        if(this.templateCells != null) {
+            itemComponent = null;
+            this.markTemplateCellsChanged(index, index + 1);
+        }
+        // cells outside of the window have no component
+        else if(previous.getComponent() == null)
+            itemComponent = null;
+        else if(this.generatorOfCells == this.getCellGenerator() && this.getCellGenerator() instanceof RecyclingCellGenerator) {
+            itemComponent = previous.getComponent();
+            ((RecyclingCellGenerator<T, Component>) this.getCellGenerator()).bind(itemComponent, item, previous.getRow(), previous.getColumn());
+        }
+        else {
+            itemComponent = this.generateCellComponent(item, previous.getRow(), previous.getColumn());
+            replaceComponent(previous.getComponent(), itemComponent);
+        }
+        if(itemComponent != null && this.layoutMode == LayoutMode.WINDOWED)
+            this.positionWindowedCell(itemComponent, previous.getRow(), previous.getColumn());
+        final CellInformation<T> cellInformation = new CellInformation<>(previous.getRow(), previous.getColumn(), item, itemComponent);
+        this.cells.set(index, cellInformation);
+        this.applyCellSelection(cellInformation, selected);
+        if(itemComponent != null)
+            this.registerClickEvents(cellInformation);
+
+        if(this.multiSelection)
+            this.selectedIndexes.set(index, selected);
+        else if(selected)
+            this.markedAsSelected = cellInformation;
+        else if(this.markedAsSelected == previous)
+            this.markedAsSelected = null;
+        return cellInformation;
+    }
+
+    /**
+     * Notes that the selection needs to be sent to {@link TemplateCellsElement}. The data is sent once, before the response to the client.
+     */
+    private void markTemplateCellsChanged() {
+        this.templateSelectionChanged = true;
+        if(!this.templateUpdateScheduled)
+            this.getUI().ifPresent(ui -> {
+                this.templateUpdateScheduled = true;
+                ui.beforeClientResponse(this, context -> this.updateTemplateCells());
+            });
+    }
+
+    /**
+     * Notes that items in given range (and the selection) need to be sent to {@link TemplateCellsElement}. The data is sent once, before the response to the client.
+     * The number of items is always sent, so removing cells from the end only needs an empty range.
+     * @param fromIndex Index of the first changed cell.
+     * @param toIndex Index after the last changed cell. May exceed the number of cells.
+     */
+    private void markTemplateCellsChanged(int fromIndex, int toIndex) {
+        this.templateChangedFrom = Math.min(this.templateChangedFrom, fromIndex);
+        this.templateChangedTo = Math.max(this.templateChangedTo, toIndex);
+        this.markTemplateCellsChanged();
+    }
+
+    /**
+     * Sends changed items and selection to {@link TemplateCellsElement}. Only items in the changed range are sent.
+     */
+    private void updateTemplateCells() {
+        this.templateUpdateScheduled = false;
+        if(this.templateCells == null)
+            return;
+        if(this.templateChangedFrom != Integer.MAX_VALUE) {
+            final int from = Math.min(this.templateChangedFrom, this.cells.size());
+            final int to = Math.min(this.templateChangedTo, this.cells.size());
+            final JsonArray items = Json.createArray();
+            for(int index = from; index < to; index++)
+                items.set(index - from, this.templateValueProvider.apply(this.cells.get(index).getValue()));
+            this.templateCells.getElement().setProperty("columnCount", this.getColumnCount());
+            this.templateCells.getElement().callJsFunction("updateItems", from, items, this.cells.size());
+            this.templateChangedFrom = Integer.MAX_VALUE;
+            this.templateChangedTo = 0;
+        }
+        if(this.templateSelectionChanged) {
+            final JsonArray selected = Json.createArray();
+            this.getSelectedIndexes().stream().forEach(index -> selected.set(selected.length(), index));
+            this.templateCells.getElement().setPropertyJson("selected", selected);
+            this.templateSelectionChanged = false;
+        }
+    }
+
+    /**
+     * Reacts to a cell being clicked in {@link TemplateCellsElement}.
+     * @param index Index of the cell.
+     * @param shiftPressed Whether or not shift key was pressed.
+     */
+    private void clickTemplateCell(int index, boolean shiftPressed) {
+        if(index >= 0 && index < this.size())
+            this.clickCellAndUpdateValue(this.cells.get(index), shiftPressed);
+    }
+
+    /**
+     * Checks whether or not a cell is in the window of cells that have components.
+     * @param row Row of the cell.
+     * @param column Column of the cell.
+     * @return {@code true} when the cell is visible or close enough to the visible area.
+     */
+    private boolean isInWindow(int row, int column) {
+        return row >= Math.floor(this.viewportTop / this.windowCellHeight) - this.windowOverscan
+                && row <= Math.floor((this.viewportTop + this.viewportHeight) / this.windowCellHeight) + this.windowOverscan
+                && column >= Math.floor(this.viewportLeft / this.windowCellWidth) - this.windowOverscan
+                && column <= Math.floor((this.viewportLeft + this.viewportWidth) / this.windowCellWidth) + this.windowOverscan;
+    }
+
+    /**
+     * Sets the position and size of a cell component when {@link LayoutMode#WINDOWED} is used.
+     * @param component Component of the cell.
+     * @param row Row of the cell.
+     * @param column Column of the cell.
+     */
+    private void positionWindowedCell(Component component, int row, int column) {
+        component.getElement().getStyle()
+                .set("position", "absolute")
+                .set("box-sizing", "border-box")
+                .set("left", (column * this.windowCellWidth) + "px")
+                .set("top", (row * this.windowCellHeight) + "px")
+                .set("width", this.windowCellWidth + "px")
+                .set("height", this.windowCellHeight + "px");
+    }
+
+    /**
+     * Sets the size of the element that makes the viewport scrollable, so that it matches the size of all cells.
+     * @param cellCount Number of cells.
+     */
+    private void updateWindowSpacer(int cellCount) {
+        if(this.windowSpacer != null) {
+            final String height = (((cellCount + this.getColumnCount() - 1) / this.getColumnCount()) * this.windowCellHeight) + "px";
+            this.windowSpacer.getElement().getStyle()
+                    .set("width", (Math.min(cellCount, this.getColumnCount()) * this.windowCellWidth) + "px")
+                    .set("height", height);
+            // the sentinel of infinite scroll is right below the last row
+            if(this.infiniteScrollSentinel != null)
+                this.infiniteScrollSentinel.getStyle().set("top", height);
+        }
+    }
+
+    /**
+     * Creates a component for a cell that does not have one and puts it in the viewport.
+     * @param index Index of the cell.
+     * @param generator Generator to produce the component with.
+     * @return Information about the cell.
+     */
+    private CellInformation<T> materializeCell(int index, CellGenerator<T> generator) {
+        final CellInformation<T> previous = this.cells.get(index);
+        final Component component = generator.generateComponent(previous.getValue(), previous.getRow(), previous.getColumn());
+        this.positionWindowedCell(component, previous.getRow(), previous.getColumn());
+        final CellInformation<T> cellInformation = new CellInformation<>(previous.getRow(), previous.getColumn(), previous.getValue(), component);
+        this.cells.set(index, cellInformation);
+        if(this.markedAsSelected == previous)
+            this.markedAsSelected = cellInformation;
+        this.applyCellSelection(cellInformation, this.multiSelection ? this.selectedIndexes.get(index) : this.markedAsSelected == cellInformation);
+        this.registerClickEvents(cellInformation);
+        this.contents.add(component);
+        this.materializedIndexes.set(index);
+        return cellInformation;
+    }
+
+    /**
+     * Removes the component of a cell from the viewport. The cell remains in the grid, without a component.
+     * When the component is a placeholder, its generation is cancelled, so that cells scrolled past do not take the place of visible ones.
+     * @param index Index of the cell.
+     */
+    private void dematerializeCell(int index) {
+        final CellInformation<T> previous = this.cells.get(index);
+        if(!this.pendingAsyncCells.remove(previous))
+            Optional.ofNullable(this.runningAsyncCells.remove(previous)).ifPresent(task -> task.cancel(true));
+        this.releaseCellComponent(previous);
+        final CellInformation<T> cellInformation = new CellInformation<>(previous.getRow(), previous.getColumn(), previous.getValue(), null);
+        this.cells.set(index, cellInformation);
+        if(this.markedAsSelected == previous)
+            this.markedAsSelected = cellInformation;
+        this.materializedIndexes.clear(index);
+    }
+
+    /**
+     * Updates the visible area of the viewport and makes sure that exactly the cells in the window have components.
+     * @param left Horizontal scroll position, in pixels.
+     * @param top Vertical scroll position, in pixels.
+     * @param width Width of the viewport, in pixels.
+     * @param height Height of the viewport, in pixels.
+     */
+    private void updateViewport(double left, double top, double width, double height) {
+        this.viewportLeft = Math.max(0, left);
+        this.viewportTop = Math.max(0, top);
+        this.viewportWidth = Math.max(0, width);
+        this.viewportHeight = Math.max(0, height);
+        if(this.layoutMode != LayoutMode.WINDOWED || this.templateCells != null)
+            return;
+        // removing first, so that recycled components can be reused right away
+        for(int index = this.materializedIndexes.nextSetBit(0); index >= 0; index = this.materializedIndexes.nextSetBit(index + 1)) {
+            final CellInformation<T> cell = this.cells.get(index);
+            if(!this.isInWindow(cell.getRow(), cell.getColumn()))
+                this.dematerializeCell(index);
+        }
+        final int columns = this.getColumnCount();
+        final int firstRow = (int) Math.max(0, Math.floor(this.viewportTop / this.windowCellHeight) - this.windowOverscan);
+        final int lastRow = (int) Math.min(this.getRowCount() - 1, Math.floor((this.viewportTop + this.viewportHeight) / this.windowCellHeight) + this.windowOverscan);
+        final int firstColumn = (int) Math.max(0, Math.floor(this.viewportLeft / this.windowCellWidth) - this.windowOverscan);
+        final int lastColumn = (int) Math.min(columns - 1, Math.floor((this.viewportLeft + this.viewportWidth) / this.windowCellWidth) + this.windowOverscan);
+        for(int row = firstRow; row <= lastRow; row++)
+            for(int column = firstColumn; column <= lastColumn && row * columns + column < this.size(); column++)
+                if(!this.materializedIndexes.get(row * columns + column))
+                    this.materializeCell(row * columns + column, this::generateCellComponent);
+    }
+
+    /**
+     * Asks the browser to report the current scroll position and size of the viewport.
+     */
+    private void requestViewportReport() {
+        if(this.windowScrollRegistration != null)
+            ((Component) this.contents).getElement().executeJs("this.dispatchEvent(new Event('scroll'))");
+    }
+
+    /**
+     * Updates the main container to match current {@link LayoutMode}: makes it a scrollable viewport when {@link LayoutMode#WINDOWED} is used.
+     */
+    private void updateWindowedLayout() {
+        final Element container = ((Component) this.contents).getElement();
+        if(this.layoutMode == LayoutMode.WINDOWED) {
+            container.getStyle().set("position", "relative").set("overflow", "auto").set("width", "100%").set("height", "100%");
+            if(this.windowSpacer == null) {
+                this.windowSpacer = new Div();
+                this.windowSpacer.addClassName("item-grid-window-spacer");
+                this.windowSpacer.getElement().getStyle().set("pointer-events", "none");
+            }
+            if(this.windowScrollRegistration == null) {
+                this.windowScrollRegistration = container.addEventListener("scroll", event -> this.updateViewport(
+                        event.getEventData().getNumber("element.scrollLeft"),
+                        event.getEventData().getNumber("element.scrollTop"),
+                        event.getEventData().getNumber("element.clientWidth"),
+                        event.getEventData().getNumber("element.clientHeight")
+                ));
+                this.windowScrollRegistration.addEventData("element.scrollLeft").addEventData("element.scrollTop")
+                        .addEventData("element.clientWidth").addEventData("element.clientHeight")
+                        .throttle(WINDOW_SCROLL_THROTTLE);
+            }
+            this.requestViewportReport();
+        }
+        else {
+            container.getStyle().remove("position").remove("overflow").remove("width").remove("height");
+            this.windowSpacer = null;
+            if(this.windowScrollRegistration != null) {
+                this.windowScrollRegistration.remove();
+                this.windowScrollRegistration = null;
+            }
+        }
+    }
+
+    /**
+     * Puts a component in place of another one, in the same parent.
+     * @param previous Component to replace.
+     * @param component Component to put instead.
+     */
+    private static void replaceComponent(Component previous, Component component) {
+        final Element previousElement = previous.getElement();
+        previousElement.getParent().setChild(previousElement.getParent().indexOfChild(previousElement), component.getElement());
+    }
+
+    /**
+     * Starts generating components of pending cells in the background, as long as the concurrency limit allows.
+     * Nothing happens when this component is not attached, as the results are put into the grid through {@link UI#access(com.vaadin.flow.server.Command)}.
+     */
+    private void startAsyncCellGeneration() {
+        final UI ui = this.getUI().orElse(null);
+        if(ui == null || this.asyncExecutor == null)
+            return;
+        while(this.occupiedAsyncSlots.get() < this.asyncConcurrencyLimit && !this.pendingAsyncCells.isEmpty()) {
+            final CellInformation<T> cell = this.pendingAsyncCells.poll();
+            final int generation = this.asyncGeneration;
+            final AsyncCellTask task = new AsyncCellTask(cell, this.getCellGenerator(), ui);
+            this.runningAsyncCells.put(cell, task);
+            this.occupiedAsyncSlots.incrementAndGet();
+            // cancelled tasks do not report back, the cells they generated are already taken care of
+            task.result.orTimeout(this.asyncTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((component, throwable) -> {
+                        if(!(throwable instanceof CancellationException))
+                            ui.access(() -> this.finishAsyncCellGeneration(generation, cell, component));
+                    });
+            try {
+                this.asyncExecutor.execute(task);
+            }
+            catch(RejectedExecutionException rejected) {
+                task.cancel(false);
+                // the cell may not be in the grid yet, so the fallback is used later
+                ui.access(() -> this.finishAsyncCellGeneration(generation, cell, null));
+            }
+        }
+    }
+
+    /**
+     * Frees a slot taken by a finished {@link AsyncCellTask} and starts generating the next pending cell. Called from executor threads.
+     * @param ui UI to access the grid through.
+     */
+    private void releaseAsyncSlot(UI ui) {
+        this.occupiedAsyncSlots.decrementAndGet();
+        try {
+            ui.access(this::startAsyncCellGeneration);
+        }
+        catch(UIDetachedException detached) {
+            // nothing to generate, attaching again restarts the generation
+        }
+    }
+
+    /**
+     * Puts the generated component in place of the placeholder, unless the cell has changed in the meantime. Starts generating the next pending cell.
+     * @param generation Value of {@link #asyncGeneration} when the generation started; results from earlier generations are ignored.
+     * @param placeholderCell Information about the cell, with the placeholder as its component.
+     * @param component Generated component. When {@code null} (generation failed or timed out), {@link #getFallbackCellGenerator()} is used instead.
+     *                  A generator that timed out is interrupted, but it keeps its slot until it actually returns.
+     */
+    private void finishAsyncCellGeneration(int generation, CellInformation<T> placeholderCell, Component component) {
+        if(generation != this.asyncGeneration)
+            return;
+        Optional.ofNullable(this.runningAsyncCells.remove(placeholderCell)).ifPresent(task -> task.cancel(true));
+        final int index = this.indexOf(placeholderCell);
+        if(index < this.size() && this.cells.get(index).getComponent() == placeholderCell.getComponent()) {
+            final Component cellComponent = component != null ? component : this.getFallbackCellGenerator().generateComponent(placeholderCell.getValue(), placeholderCell.getRow(), placeholderCell.getColumn());
+            final CellInformation<T> previous = this.cells.get(index);
+            Optional.ofNullable(this.clickRegistrations.remove(previous.getComponent())).ifPresent(Registration::remove);
+            replaceComponent(previous.getComponent(), cellComponent);
+            if(this.layoutMode == LayoutMode.WINDOWED)
+                this.positionWindowedCell(cellComponent, previous.getRow(), previous.getColumn());
+            final CellInformation<T> cellInformation = new CellInformation<>(previous.getRow(), previous.getColumn(), previous.getValue(), cellComponent);
+            this.cells.set(index, cellInformation);
+            if(this.multiSelection ? this.selectedIndexes.get(index) : this.markedAsSelected == previous) {
+                this.applyCellSelection(cellInformation, true);
+                if(!this.multiSelection)
+                    this.markedAsSelected = cellInformation;
+            }
+            this.registerClickEvents(cellInformation);
+        }
+        this.startAsyncCellGeneration();
+    }
+
+    /**
+     * Stops background generation of cells. Tasks that have not started yet are cancelled, and the ones in progress are interrupted;
+     * their results will be ignored.
+     * @param resumeLater When {@code true}, the cells are kept and their generation starts again with {@link #startAsyncCellGeneration()};
+     *                    otherwise they are forgotten.
+     */
+    private void cancelAsyncCellGeneration(boolean resumeLater) {
+        this.asyncGeneration++;
+        this.runningAsyncCells.values().forEach(task -> task.cancel(true));
+        if(resumeLater) {
+            final List<CellInformation<T>> running = new ArrayList<>(this.runningAsyncCells.keySet());
+            for(int index = running.size() - 1; index >= 0; index--)
+                this.pendingAsyncCells.addFirst(running.get(index));
+        }
+        else this.pendingAsyncCells.clear();
+        this.runningAsyncCells.clear();
+    }
+
+    /**
+     * Rebuilds the mapping between data provider identifiers and cell indexes. Does nothing when there is no data provider.
+     */
+    private void updateIndexesOfIds() {
+        this.indexesOfIds.clear();
+        if(this.dataProvider != null)
+            for(int index = 0; index < this.cells.size(); index++)
+                this.indexesOfIds.put(this.dataProvider.getId(this.cells.get(index).getValue()), index);
+    }
+
+    /**
+     * Fetches all items from given data provider.
+     * @param provider Data provider.
+     * @param <V> Type of items.
+     * @param <F> Type of filter.
+     * @return A list with all items.
+     */
+    private static <V, F> List<V> fetchAllItems(DataProvider<V, F> provider) {
+        return provider.fetch(new Query<>()).collect(Collectors.toList());
+    }
+
+    /**
+     * Reacts to changes in the data provider.
+     * @param event Event with information about the change.
+     */
+    @SuppressWarnings("unchecked")
+    private void onDataChange(DataChangeEvent<T> event) {
+        if(event instanceof DataChangeEvent.DataRefreshEvent)
+            this.refreshItem(((DataChangeEvent.DataRefreshEvent<T>) event).getItem());
+        else this.refreshAllItems();
+    }
+
+    /**
+     * Regenerates the cell that corresponds to the given item, if there is one. No other cell is affected.
+     * Requires a data provider to be set, as cells are matched using {@link DataProvider#getId(Object)}.
+     * @param item Item to refresh.
+     * @see #setDataProvider(DataProvider)
+     */
+    public void refreshItem(T item) {
+        if(this.dataProvider == null)
+            return;
+        final Integer index = this.indexesOfIds.get(this.dataProvider.getId(item));
+        if(index != null) {
+            final CellInformation<T> previous = this.cells.get(index);
+            this.replaceCell(index, item, this.multiSelection ? this.selectedIndexes.get(index) : this.markedAsSelected == previous);
+        }
+    }
+
+    /**
+     * Fetches all items from the data provider again and updates the cells.
+     * Cells are matched with items by data provider identifier: if there was a cell with an equal item, its component is kept and, if needed, moved to the new position;
+     * otherwise a new component is generated. Components of cells that are no longer needed are removed (or recycled).
+     * As a result, inserting or removing an item only generates components for new items.
+     * Items that change without changing their {@link Object#equals(Object)} should be refreshed with {@link #refreshItem(Object)}.
+     * Does nothing when there is no data provider.
+     * @see #setDataProvider(DataProvider)
+     */
+    public void refreshAllItems() {
+        if(this.dataProvider == null)
+            return;
+        final List<T> newItems = fetchAllItems(this.dataProvider);
+        final T currentValue = this.getValue();
+        final List<T> previousItems = this.getItems();
+        final Set<T> selectedValues = this.multiSelection ? this.selectedIndexes.stream().mapToObj(previousItems::get).collect(Collectors.toSet()) : Collections.emptySet();
+        final BitSet previousSelection = (BitSet) this.selectedIndexes.clone();
+        final CellInformation<T> previousMarkedAsSelected = this.markedAsSelected;
+        final List<CellInformation<T>> previousCells = new ArrayList<>(this.cells);
+
+        // cells still waiting for their components are not reused, as their generation is cancelled
+        final Set<Component> placeholders = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.pendingAsyncCells.forEach(cell -> placeholders.add(cell.getComponent()));
+        this.runningAsyncCells.keySet().forEach(cell -> placeholders.add(cell.getComponent()));
+        this.cancelAsyncCellGeneration(false);
+
+        // matching cells with items, by identifier
+        final int[] previousIndexes = new int[newItems.size()];
+        final BitSet reusedIndexes = new BitSet();
+        for(int index = 0; index < newItems.size(); index++) {
+            final Integer previousIndex = this.indexesOfIds.get(this.dataProvider.getId(newItems.get(index)));
+            if(previousIndex != null && !reusedIndexes.get(previousIndex)
+                    && Objects.equals(previousCells.get(previousIndex).getValue(), newItems.get(index))
+                    && !placeholders.contains(previousCells.get(previousIndex).getComponent())) {
+                reusedIndexes.set(previousIndex);
+                previousIndexes[index] = previousIndex;
+            }
+            else previousIndexes[index] = -1;
+        }
+        // releasing first, so that recycled components can be reused right away
+        for(int index = 0; index < previousCells.size(); index++)
+            if(!reusedIndexes.get(index))
+                this.releaseCellComponent(previousCells.get(index));
+
+        this.cells.clear();
+        this.selectedIndexes.clear();
+        this.markedAsSelected = null;
+        this.materializedIndexes.clear();
+        final int columns = this.getColumnCount();
+        for(int index = 0; index < newItems.size(); index++) {
+            final T item = newItems.get(index);
+            final int row = index / columns;
+            final int column = index % columns;
+            final boolean selected = this.multiSelection ? selectedValues.contains(item) : Objects.equals(item, currentValue);
+            final CellInformation<T> previous = previousIndexes[index] < 0 ? null : previousCells.get(previousIndexes[index]);
+            final boolean wasSelected = previous != null && (this.multiSelection ? previousSelection.get(previousIndexes[index]) : previousMarkedAsSelected == previous);
+            final CellInformation<T> cell;
+            if(previous != null && previous.getRow() == row && previous.getColumn() == column)
+                cell = previous;
+            else if(previous != null) {
+                Optional.ofNullable(this.clickRegistrations.remove(previous.getComponent())).ifPresent(Registration::remove);
+                this.moveCellComponent(previous, row, column);
+                cell = new CellInformation<>(row, column, item, previous.getComponent());
+                if(cell.getComponent() != null)
+                    this.registerClickEvents(cell);
+            }
+            // cells rendered from a template or outside of the window have no components
+            else if(this.templateCells != null || this.layoutMode == LayoutMode.WINDOWED)
+                cell = new CellInformation<>(row, column, item, null);
+            else {
+                cell = new CellInformation<>(row, column, item, this.generateCellComponent(item, row, column));
+                this.registerClickEvents(cell);
+            }
+            this.cells.add(cell);
+            if(previous == null || wasSelected != selected)
+                this.applyCellSelection(cell, selected);
+            if(selected && this.multiSelection)
+                this.selectedIndexes.set(index);
+            else if(selected)
+                this.markedAsSelected = cell;
+        }
+
+        // putting components in their places
+        if(this.templateCells != null)
+            this.markTemplateCellsChanged(0, Integer.MAX_VALUE);
+        else if(this.layoutMode == LayoutMode.WINDOWED) {
+            this.updateWindowSpacer(this.cells.size());
+            for(int index = 0; index < this.cells.size(); index++)
+                if(this.cells.get(index).getComponent() != null)
+                    this.materializedIndexes.set(index);
+            // removes components outside of the window and creates the missing ones
+            this.updateViewport(this.viewportLeft, this.viewportTop, this.viewportWidth, this.viewportHeight);
+        }
+        else if(this.layoutMode == LayoutMode.CSS_GRID)
+            arrangeChildren(((Component) this.contents).getElement(), this.cells.stream().map(CellInformation::getComponent).collect(Collectors.toList()));
+        else {
+            final int rowCount = (this.cells.size() + columns - 1) / columns;
+            while(this.rowContainers.size() > rowCount)
+                ((Component) this.rowContainers.remove(this.rowContainers.size() - 1)).getElement().removeFromParent();
+            while(this.rowContainers.size() < rowCount) {
+                final HasComponents rowContainer = this.getRowComponentGenerator().generateRowComponent(this.rowContainers.size());
+                this.rowContainers.add(rowContainer);
+                this.contents.add((Component) rowContainer);
+            }
+            for(int row = 0; row < rowCount; row++)
+                arrangeChildren(((Component) this.rowContainers.get(row)).getElement(),
+                        this.cells.subList(row * columns, Math.min(this.cells.size(), (row + 1) * columns)).stream().map(CellInformation::getComponent).collect(Collectors.toList()));
+        }
+
+        this.updateIndexesOfIds();
+        if(this.selectionAnchor >= this.cells.size())
+            this.selectionAnchor = -1;
+        if(this.multiSelection)
+            this.fireCellMultiSelectionDifference(previousItems, previousSelection, this.dataProvider::getId);
+        this.updateValue();
+    }
+
+    /**
+     * Registers a listener in the current data provider, if there is one and it has no listener yet.
+     */
+    private void registerDataProviderListener() {
+        if(this.dataProvider != null && this.dataProviderListenerRegistration == null)
+            this.dataProviderListenerRegistration = this.dataProvider.addDataProviderListener(this::onDataChange);
+    }
+
+    /**
+     * Removes the listener from the current data provider, if there is one.
+     */
+    private void removeDataProviderListener() {
+        if(this.dataProviderListenerRegistration != null) {
+            this.dataProviderListenerRegistration.remove();
+            this.dataProviderListenerRegistration = null;
+        }
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        // changes may have been missed while detached
+        if(this.dataProvider != null && this.dataProviderListenerRegistration == null) {
+            this.registerDataProviderListener();
+            this.refreshAllItems();
+        }
+        this.startAsyncCellGeneration();
+        this.requestViewportReport();
+        if(this.clientSideSelection)
+            ((Component) this.contents).getElement().executeJs(CLIENT_SIDE_SELECTION_SCRIPT, DEFAULT_SELECTED_ITEM_CLASS_NAME);
+        // the browser has no items when the element is attached again
+        if(this.templateCells != null)
+            this.markTemplateCellsChanged(0, Integer.MAX_VALUE);
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        this.removeDataProviderListener();
+        this.cancelAsyncCellGeneration(true);
+        this.templateUpdateScheduled = false;
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Notifies current {@link CellSelectionHandler} that a cell was (de)selected.
+     * When default {@link CellSelectionHandler} is used, the class name is changed directly and no event object is created.
+     * Cells rendered from a template are styled in the browser instead. Cells without components (outside of the window) are ignored.
+     * @param information Information about the cell.
+     * @param selected Whether or not the cell is selected.
+     */
+    private void applyCellSelection(CellInformation<T> information, boolean selected) {
+        if(this.templateCells != null)
+            this.markTemplateCellsChanged();
+        // cells outside of the window get their selection when they get a component
+        else if(information.getComponent() == null)
+            return;
+        else if(this.defaultCellSelectionHandlerUsed)
+            markAsSelected(information.getComponent(), selected);
+        else this.getCellSelectionHandler().cellSelectionChanged(new CellSelectionEvent<>(information, selected));
+    }
+
+    /**
+     * Adds a click listener to the dom element of the {@link Component} inside given {@link CellInformation}.
+     * This click listener will select or deselect a cell and update the value of this grid, unless selection is handled in the browser.
+     * The element also gets {@link #CELL_INDEX_ATTRIBUTE}.
+     *
+     * Note: when overriding this method, please remember to call {@code super}.
+     * @param information Information. Never {@code null}.
+     */
+    protected void registerClickEvents(CellInformation<T> information) {
+        information.getComponent().getElement().setAttribute(CELL_INDEX_ATTRIBUTE, String.valueOf(this.indexOf(information)));
+        final DomListenerRegistration registration = information.getComponent().getElement().addEventListener("click", event ->
+                this.clickCellAndUpdateValue(information, event.getEventData().hasKey(SHIFT_KEY_EVENT_DATA) && event.getEventData().getBoolean(SHIFT_KEY_EVENT_DATA))
+        );
+        registration.addEventData(SHIFT_KEY_EVENT_DATA);
+        // clicks are handled in the browser when client-side selection is on
+        registration.setFilter("!element.closest('[" + CLIENT_SIDE_SELECTION_ATTRIBUTE + "]')");
+        this.clickRegistrations.put(information.getComponent(), registration);
+    }
+
+    private void clickCellAndUpdateValue(CellInformation<T> information, boolean shiftPressed) {
+        if(this.multiSelection)
+            this.clickCellInMultiSelection(this.indexOf(information), shiftPressed);
+        else this.clickCell(information);
+        this.updateValue();
+    }
+
+    /**
+     * Reacts to cell being clicked when multiple selection is on.
+     * The cell is toggled, unless {@code range} is {@code true} and there was a cell clicked before; in such case all cells between the two become selected.
+     * @param index Index of the clicked cell.
+     * @param range Whether or not to select a range of cells (usually when shift is pressed).
+     */
+    private void clickCellInMultiSelection(int index, boolean range) {
+        final BitSet selection = (BitSet) this.selectedIndexes.clone();
+        if(range && this.selectionAnchor >= 0)
+            selection.set(Math.min(this.selectionAnchor, index), Math.max(this.selectionAnchor, index) + 1);
+        else {
+            selection.flip(index);
+            this.selectionAnchor = index;
+        }
+        this.changeSelection(selection);
+    }
+
+    /**
+     * Changes current multiple selection to the given one. Only cells that change their selection status are updated.
+     * Fires a {@link CellMultiSelectionEvent} with the difference, unless there is none. Does not update the value.
+     * A {@link MultiCellSelectionHandler} is notified once with the same event, other custom handlers get a {@link CellSelectionEvent} for each changed cell.
+     * @param newSelection Indexes of cells that should be selected.
+     */
+    @SuppressWarnings("unchecked")
+    private void changeSelection(BitSet newSelection) {
+        final BitSet added = (BitSet) newSelection.clone();
+        added.andNot(this.selectedIndexes);
+        final BitSet removed = (BitSet) this.selectedIndexes.clone();
+        removed.andNot(newSelection);
+        if(added.isEmpty() && removed.isEmpty())
+            return;
+        final List<T> items = this.getItemsView();
+        final CellMultiSelectionEvent<T> event = new CellMultiSelectionEvent<>(this, added, removed, items, items);
+        if(this.templateCells == null && this.cellSelectionHandler instanceof MultiCellSelectionHandler)
+            ((MultiCellSelectionHandler<T>) this.cellSelectionHandler).cellMultiSelectionChanged(event);
+        else {
+            removed.stream().forEach(index -> this.applyCellSelection(this.cells.get(index), false));
+            added.stream().forEach(index -> this.applyCellSelection(this.cells.get(index), true));
+        }
+        this.selectedIndexes.clear();
+        this.selectedIndexes.or(newSelection);
+        this.fireCellMultiSelectionEvent(event);
+    }
+
+    /**
+     * Notifies all registered {@link CellMultiSelectionListener}s.
+     * @param event Event to broadcast.
+     */
+    protected void fireCellMultiSelectionEvent(CellMultiSelectionEvent<T> event) {
+        new ArrayList<>(this.multiSelectionListeners).forEach(listener -> listener.cellMultiSelectionChanged(event));
+    }
+
+    /**
+     * Reacts to cell being clicked in the browser.
+     * @param information Information about the clicked cell.
+     */
+    protected void clickCell(CellInformation<T> information) {
+        // if there is no selection at all, mark and remember component as selected
+        if(this.markedAsSelected == null) {
+            this.markedAsSelected = information;
+            this.applyCellSelection(this.markedAsSelected, true);
+        }
+        // if the same value is selected, deselect it and do nothing else
+        else if(Objects.equals(this.markedAsSelected.getValue(), information.getValue())) {
+            this.applyCellSelection(information, false);
+            this.markedAsSelected = null;
+        }
+        // otherwise deselect existing value and select new value
+        else {
+            this.applyCellSelection(this.markedAsSelected, false);
+            this.markedAsSelected = information;
+            this.applyCellSelection(this.markedAsSelected, true);
+        }
+    }
+
+    @Override
+    protected T generateModelValue() {
+        return this.getSelectedCellInformation().map(CellInformation::getValue).orElse(this.getEmptyValue());
+    }
+
+    @Override
+    protected void setPresentationValue(T t) {
+        if(this.multiSelection) {
+            final BitSet selection = new BitSet();
+            if(!Objects.equals(t, this.getEmptyValue()))
+                this.getCellInformation(t).map(this::indexOf).ifPresent(selection::set);
+            this.changeSelection(selection);
+        }
+        else if(Objects.equals(t, this.getEmptyValue()) && this.markedAsSelected != null)
+            this.clickCell(this.markedAsSelected);
+        else if(!Objects.equals(t, this.getEmptyValue()))
+            this.getCellInformation(t).ifPresent(this::clickCell);
+    }
+
+    /**
+     * Sets new {@link CellGenerator}. Repaints all items.
+     * When the generator is a {@link RecyclingCellGenerator}, components of cells are reused between repaints (see {@link #getCellComponentPool()}).
+     * When it is a {@link TwoPhaseCellGenerator}, models of cells are prepared in parallel whenever many cells are added at once.
+     * @param cellGenerator Cell generator. If {@code null} is passed, {@link #defaultCellGenerator(Object, int, int)} will be used.
+     */
+    public void setCellGenerator(CellGenerator<T> cellGenerator) {
+        // components made by the previous generator must not be recycled
+        this.cellComponentPool.clear();
+        this.cellGenerator = Optional.ofNullable(cellGenerator).orElse(ItemGrid::defaultCellGenerator);
+        this.defaultCellGeneratorUsed = cellGenerator == null;
+        this.repaintAllItems();
+    }
+
+    /**
+     * Returns current {@link CellGenerator} used to generate cells.
+     * @return A {@link CellGenerator}. Never {@code null}.
+     */
+    public CellGenerator<T> getCellGenerator() {
+        return this.cellGenerator;
+    }
+
+    /**
+     * Chains {@link #setCellGenerator(CellGenerator)} and returns itself.
+     * @param generator {@link CellGenerator} to use.
+     * @return This.
+     * @see #setCellGenerator(CellGenerator)
+     */
+    public ItemGrid<T> withCellGenerator(CellGenerator<T> generator) {
+        this.setCellGenerator(generator);
+        return this;
+    }
+
+    /**
+     * Sets new {@link CellSelectionHandler}. Repaints all items.
+     * With multiple selection on, only the default handler and a {@link MultiCellSelectionHandler} avoid creating a {@link CellSelectionEvent} for each cell changed by
+     * {@link #selectAll()}, {@link #invertSelection()} and similar methods.
+     * @param cellSelectionHandler Cell selection handler. If {@code null} is passed, {@link #defaultCellSelectionHandler(CellSelectionEvent)} will be used.
+     */
+    public void setCellSelectionHandler(CellSelectionHandler<T> cellSelectionHandler) {
+        this.cellSelectionHandler = Optional.ofNullable(cellSelectionHandler).orElse(ItemGrid::defaultCellSelectionHandler);
+        this.defaultCellSelectionHandlerUsed = cellSelectionHandler == null;
+        this.updateClientSideSelection();
+        this.repaintAllItems();
+    }
+
+    /**
+     * Returns current {@link CellSelectionHandler} used to react to selection changes.
+     * @return A {@link CellSelectionHandler}. Never {@code null}.
+     */
+    public CellSelectionHandler<T> getCellSelectionHandler() {
+        return this.cellSelectionHandler;
+    }
+
+    /**
+     * Chains {@link #setCellSelectionHandler(CellSelectionHandler)} and returns itself.
+     * @param handler {@link CellSelectionHandler} to use.
+     * @return This.
+     * @see #setCellSelectionHandler(CellSelectionHandler)
+     */
+    public ItemGrid<T> withCellSelectionHandler(CellSelectionHandler<T> handler) {
+        this.setCellSelectionHandler(handler);
+        return this;
+    }
+
+    /**
+     * Returns the number of rows (even incomplete) currently in the grid.
+     * @return The number of rows. This will change if new items are added or the number of columns changes.
+     * @see #setItems(Collection)
+     * @see #setItems(Object[])
+     * @see #setItems(Stream)
+     * @see #setColumnCount(int)
+     */
+    public long getRowCount() {
+        return (this.size() + this.getColumnCount() - 1) / this.getColumnCount();
+    }
+
+    /**
+     * Returns the current number of columns.
+     * @return The number of columns in the grid.
+     */
+    public int getColumnCount() {
         return this.columnCount;
     }
 
     /**
-     * Sets the new number of columns. Repaints all items.
-     * @param columnCount Number of columns. Values less than {@code 1} are replaced with {@code 1} instead,
+     * Sets the new number of columns. Repaints all items.
+     * @param columnCount Number of columns. Values less than {@code 1} are replaced with {@code 1} instead,
+     */
+    public void setColumnCount(int columnCount) {
+        this.columnCount = Math.max(1, columnCount);
+        this.updateCssGridStyles();
+        this.updateClientSideSelection();
+        this.repaintAllItems();
+    }
+
+    /**
+     * Chains {@link #setColumnCount(int)} and returns itself.
+     * @param columnCount Number of columns.
+     * @return This.
+     * @see #setColumnCount(int)
+     */
+    public ItemGrid<T> withColumnCount(int columnCount) {
+        this.setColumnCount(columnCount);
+        return this;
+    }
+
+    @Override
+    public void setItems(Collection<T> collection) {
+        this.removeDataProviderListener();
+        this.dataProvider = null;
+        this.repaintAllItems(collection);
+    }
+
+    /**
+     * Sets the data provider and displays all its items. Unlike {@link #setItems(Collection)}, changes signalled by the data provider are tracked:
+     * a refresh of a single item regenerates only its cell, and a refresh of all items updates only the cells that have changed.
+     * @param dataProvider Data provider to use. If {@code null} is passed, the grid will be empty.
+     * Turns off infinite scrolling.
+     * @see #refreshItem(Object)
+     * @see #refreshAllItems()
+     */
+    @Override
+    public void setDataProvider(DataProvider<T, ?> dataProvider) {
+        this.stopInfiniteScroll();
+        this.removeDataProviderListener();
+        this.dataProvider = dataProvider;
+        this.repaintAllItems(dataProvider == null ? Collections.emptyList() : fetchAllItems(dataProvider));
+        this.registerDataProviderListener();
+    }
+
+    /**
+     * Adds items after the last cell. Existing cells are left untouched: the last row is filled first, then new rows are started.
+     * A new cell becomes selected when its item is the current value and no cell is selected yet.
+     * When a data provider is set, the added items are not part of it and disappear on its next full refresh.
+     * @param items Items to add.
+     */
+    public void addItems(Collection<T> items) {
+        final T currentValue = this.getValue();
+        final int firstIndex = this.size();
+        final List<T> itemList = new ArrayList<>(items);
+        final CellGenerator<T> generator = this.prepareCells(itemList, firstIndex);
+        for(T item: itemList)
+            this.appendCell(item, !this.multiSelection && this.markedAsSelected == null && !Objects.equals(currentValue, this.getEmptyValue()) && Objects.equals(item, currentValue), generator);
+        if(this.dataProvider != null)
+            for(int index = firstIndex; index < this.size(); index++)
+                this.indexesOfIds.put(this.dataProvider.getId(this.cells.get(index).getValue()), index);
+    }
+
+    /**
+     * Adds items after the last cell.
+     * @param items Items to add.
+     * @see #addItems(Collection)
+     */
+    @SafeVarargs
+    public final void addItems(T... items) {
+        this.addItems(Arrays.asList(items));
+    }
+
+    /**
+     * Turns on infinite scrolling: removes all items, displays the first page and then loads next page each time
+     * an {@link ObservedField} placed after the last row becomes fully visible. Loading stops after the first page that has fewer than {@code pageSize} items.
+     * With {@link LayoutMode#WINDOWED} that field is placed inside the scrollable viewport, right below the last row, so pages are loaded only when the viewport is scrolled to the end.
+     * Use {@link ItemPageLoader#fromDataProvider(DataProvider)} to load pages from a {@link DataProvider}.
+     * Items added with {@link #setItems(Collection)} or {@link #addItems(Collection)} count as already loaded.
+     * @param pageLoader Loader of pages. If {@code null} is passed, infinite scrolling is turned off and current items remain.
+     * @param pageSize Number of items in a page. Values less than {@code 1} are replaced with {@code 1}.
+     */
+    public void setInfiniteScroll(ItemPageLoader<T> pageLoader, int pageSize) {
+        if(pageLoader == null)
+            this.stopInfiniteScroll();
+        else {
+            this.setItems(Collections.emptyList());
+            this.pageLoader = pageLoader;
+            this.pageSize = Math.max(1, pageSize);
+            this.allPagesLoaded = false;
+            this.loadNextPage();
+        }
+    }
+
+    /**
+     * Chains {@link #setInfiniteScroll(ItemPageLoader, int)} and returns itself.
+     * @param pageLoader Loader of pages.
+     * @param pageSize Number of items in a page.
+     * @return This.
+     * @see #setInfiniteScroll(ItemPageLoader, int)
+     */
+    public ItemGrid<T> withInfiniteScroll(ItemPageLoader<T> pageLoader, int pageSize) {
+        this.setInfiniteScroll(pageLoader, pageSize);
+        return this;
+    }
+
+    /**
+     * Checks whether or not infinite scrolling is on.
+     * @return {@code true} when a {@link ItemPageLoader} is set.
+     * @see #setInfiniteScroll(ItemPageLoader, int)
+     */
+    public boolean isInfiniteScroll() {
+        return this.pageLoader != null;
+    }
+
+    /**
+     * Checks whether or not there may be more pages to load.
+     * @return {@code true} when infinite scrolling is on and the last loaded page was full.
+     */
+    public boolean hasMorePages() {
+        return this.pageLoader != null && !this.allPagesLoaded;
+    }
+
+    /**
+     * Loads the next page of items and adds them after the last cell. Called automatically when infinite scrolling is on and the end of the grid is shown.
+     * Does nothing when there are no more pages.
+     * @see #hasMorePages()
+     */
+    public void loadNextPage() {
+        if(!this.hasMorePages())
+            return;
+        final Collection<T> page = this.pageLoader.loadItems(this.size(), this.pageSize);
+        this.addItems(page);
+        this.allPagesLoaded = page.size() < this.pageSize;
+        this.updateInfiniteScrollSentinel();
+    }
+
+    /**
+     * Turns off infinite scrolling. Current items remain.
+     */
+    private void stopInfiniteScroll() {
+        this.pageLoader = null;
+        this.allPagesLoaded = true;
+        this.updateInfiniteScrollSentinel();
+    }
+
+    /**
+     * Puts the sentinel after the last row when there are more pages to load, otherwise removes it.
+     * An already present sentinel is removed and added again, so that the browser reports its visibility once more
+     * - in case it is still shown after the last page was loaded.
+     */
+    private void updateInfiniteScrollSentinel() {
+        if(this.infiniteScrollSentinel != null)
+            this.infiniteScrollSentinel.getElement().removeFromParent();
+        if(this.hasMorePages()) {
+            if(this.infiniteScrollSentinel == null) {
+                this.infiniteScrollSentinel = new ObservedField();
+                this.infiniteScrollSentinel.addClassName(INFINITE_SCROLL_SENTINEL_CLASS_NAME);
+                this.infiniteScrollSentinel.getStyle().set("display", "block");
+                this.infiniteScrollSentinel.getStyle().set("min-height", "1px");
+                this.infiniteScrollSentinel.addValueChangeListener(event -> {
+                    if(Boolean.TRUE.equals(event.getValue()))
+                        this.loadNextPage();
+                });
+            }
+            this.placeInfiniteScrollSentinel();
+        }
+        else this.infiniteScrollSentinel = null;
+    }
+
+    /**
+     * Puts the infinite scroll sentinel, if there is one, after the last row of cells. Usually that is the end of this component,
+     * but when {@link LayoutMode#WINDOWED} is used, the sentinel is put at the bottom of the scrollable viewport,
+     * so that it is only shown when the viewport is scrolled to the end. Nothing happens when the sentinel is already in the right place.
+     */
+    private void placeInfiniteScrollSentinel() {
+        if(this.infiniteScrollSentinel == null)
+            return;
+        final Component parent = this.windowSpacer == null ? this : (Component) this.contents;
+        if(this.windowSpacer == null)
+            this.infiniteScrollSentinel.getStyle().remove("position").remove("left").remove("top").remove("width");
+        else {
+            this.infiniteScrollSentinel.getStyle().set("position", "absolute").set("left", "0").set("width", "1px");
+            this.updateWindowSpacer(this.cells.size());
+        }
+        if(this.infiniteScrollSentinel.getParent().filter(current -> current == parent).isPresent())
+            return;
+        if(this.windowSpacer == null)
+            this.add(this.infiniteScrollSentinel);
+        else this.contents.add(this.infiniteScrollSentinel);
+    }
+
+    /**
+     * Returns current data provider.
+     * @return Data provider set with {@link #setDataProvider(DataProvider)}, if any.
+     */
+    public Optional<DataProvider<T, ?>> getDataProvider() {
+        return Optional.ofNullable(this.dataProvider);
+    }
+
+    /**
+     * Chains {@link #setDataProvider(DataProvider)} and returns itself.
+     * @param dataProvider Data provider to use.
+     * @return This.
+     * @see #setDataProvider(DataProvider)
+     */
+    public ItemGrid<T> withDataProvider(DataProvider<T, ?> dataProvider) {
+        this.setDataProvider(dataProvider);
+        return this;
+    }
+
+    /**
+     * Returns the number of cells.
+     * @return Number of cells.
+     */
+    public int size() {
+        return this.cells.size();
+    }
+
+    /**
+     * Returns a list with information about each cell.
+     * @return A list with {@link CellInformation}. Never {@code null}. Changes to the resulting object do not affect the grid.
+     */
+    public List<CellInformation<T>> getCellInformation() {
+        return new ArrayList<>(this.cells);
+    }
+
+    /**
+     * Returns information about the cell with given index.
+     * @param index Index of a cell, counting from the top-left cell, row by row.
+     * @return Information about the cell, if there is a cell with such index.
+     */
+    public Optional<CellInformation<T>> getCellInformationAt(int index) {
+        return index >= 0 && index < this.cells.size() ? Optional.of(this.cells.get(index)) : Optional.empty();
+    }
+
+    /**
+     * Returns {@link CellInformation} about currently selected cell.
+     * @return A {@link CellInformation}, if any cell is currently selected.
+     */
+    public Optional<CellInformation<T>> getSelectedCellInformation() {
+        if(this.multiSelection)
+            return this.selectedIndexes.isEmpty() ? Optional.empty() : Optional.of(this.cells.get(this.selectedIndexes.nextSetBit(0)));
+        return Optional.ofNullable(this.markedAsSelected);
+    }
+
+    /**
+     * Returns {@link CellInformation} that corresponds to the provided value.
+     * @param value A value to look for.
+     * @return A {@link CellInformation}, if a cell corresponding to the provided value is available.
+     * @see #setItems(Object[])
+     * @see #setItems(Collection)
+     * @see #setItems(Stream)
+     */
+    public Optional<CellInformation<T>> getCellInformation(T value) {
+        return this.cells.stream().filter(cell -> Objects.equals(cell.getValue(), value)).findFirst();
+    }
+
+    /**
+     * Returns {@link CellInformation} that corresponds to the cell of given coordinates.
+     * When {@link LayoutMode#WINDOWED} is used, cells outside of the window have no component.
+     * @param row Row number (0-based).
+     * @param column Column number (0-based).
+     * @return A {@link CellInformation}, if a cell corresponding to the given coordinates is available.
+     * @see #setColumnCount(int)
+     * @see #getColumnCount()
+     * @see #getRowCount()
+     */
+    public Optional<CellInformation<T>> getCellInformation(int row, int column) {
+        final int index = row * this.getColumnCount() + column;
+        if(row < 0 || column < 0 || column >= this.getColumnCount() || index >= this.size())
+            return Optional.empty();
+        return Optional.of(this.cells.get(index));
+    }
+
+    /**
+     * Returns a {@link Stream} of all {@link Component}s in the cells. There are none when {@link #isTemplateRendering()}.
+     * @return A {@link Stream}. Never {@code null}.
+     * @see #setCellGenerator(CellGenerator)
+     */
+    public Stream<Component> getCellComponents() {
+        return this.cells.stream().map(CellInformation::getComponent).filter(Objects::nonNull);
+    }
+
+    /**
+     * Returns current {@link LayoutMode}.
+     * @return A {@link LayoutMode}. Never {@code null}.
+     */
+    public LayoutMode getLayoutMode() {
+        return this.layoutMode;
+    }
+
+    /**
+     * Sets new {@link LayoutMode}. Repaints all items.
+     * @param layoutMode A {@link LayoutMode}. If {@code null} is passed, {@link LayoutMode#ROWS} will be used.
+     */
+    public void setLayoutMode(LayoutMode layoutMode) {
+        this.layoutMode = Optional.ofNullable(layoutMode).orElse(LayoutMode.ROWS);
+        this.updateCssGridStyles();
+        this.updateWindowedLayout();
+        this.repaintAllItems();
+    }
+
+    /**
+     * Switches to {@link LayoutMode#WINDOWED} with given size of cells. Repaints all items.
+     * @param cellWidth Width of each cell, in pixels. Values less than {@code 1} are replaced with {@code 1}.
+     * @param cellHeight Height of each cell, in pixels. Values less than {@code 1} are replaced with {@code 1}.
+     * @param overscan Number of extra rows and columns with components on each side of the visible area. Values less than {@code 0} are replaced with {@code 0}.
+     */
+    public void setWindowedLayout(int cellWidth, int cellHeight, int overscan) {
+        this.windowCellWidth = Math.max(1, cellWidth);
+        this.windowCellHeight = Math.max(1, cellHeight);
+        this.windowOverscan = Math.max(0, overscan);
+        this.setLayoutMode(LayoutMode.WINDOWED);
+    }
+
+    /**
+     * Chains {@link #setWindowedLayout(int, int, int)} and returns itself.
+     * @param cellWidth Width of each cell, in pixels.
+     * @param cellHeight Height of each cell, in pixels.
+     * @param overscan Number of extra rows and columns on each side of the visible area.
+     * @return This.
+     * @see #setWindowedLayout(int, int, int)
+     */
+    public ItemGrid<T> withWindowedLayout(int cellWidth, int cellHeight, int overscan) {
+        this.setWindowedLayout(cellWidth, cellHeight, overscan);
+        return this;
+    }
+
+    /**
+     * Returns the width of cells used with {@link LayoutMode#WINDOWED}.
+     * @return Width in pixels.
+     */
+    public int getWindowCellWidth() {
+        return this.windowCellWidth;
+    }
+
+    /**
+     * Returns the height of cells used with {@link LayoutMode#WINDOWED}.
+     * @return Height in pixels.
+     */
+    public int getWindowCellHeight() {
+        return this.windowCellHeight;
+    }
+
+    /**
+     * Returns the number of extra rows and columns with components on each side of the visible area, used with {@link LayoutMode#WINDOWED}.
+     * @return Overscan.
+     */
+    public int getWindowOverscan() {
+        return this.windowOverscan;
+    }
+
+    /**
+     * Chains {@link #setLayoutMode(LayoutMode)} and returns itself.
+     * @param layoutMode A {@link LayoutMode}.
+     * @return This.
+     * @see #setLayoutMode(LayoutMode)
+     */
+    public ItemGrid<T> withLayoutMode(LayoutMode layoutMode) {
+        this.setLayoutMode(layoutMode);
+        return this;
+    }
+
+    /**
+     * Updates the styling of the main container to match current {@link LayoutMode} and number of columns.
+     */
+    private void updateCssGridStyles() {
+        final Element container = ((Component) this.contents).getElement();
+        container.getClassList().removeIf(className -> className.startsWith(CSS_GRID_CLASS_NAME));
+        if(this.layoutMode == LayoutMode.CSS_GRID) {
+            container.getClassList().add(CSS_GRID_CLASS_NAME);
+            container.getClassList().add(CSS_GRID_CLASS_NAME + "-" + this.getColumnCount());
+            container.getStyle().set("display", "grid");
+            container.getStyle().set("grid-template-columns", "repeat(" + this.getColumnCount() + ", minmax(0, 1fr))");
+            if(this.cssGridStyles == null) {
+                this.cssGridStyles = new Element("style");
+                this.getElement().appendChild(this.cssGridStyles);
+            }
+            this.cssGridStyles.setText(generateCssGridStyles(this.getColumnCount()));
+        }
+        else {
+            container.getStyle().remove("display");
+            container.getStyle().remove("grid-template-columns");
+            if(this.cssGridStyles != null) {
+                this.cssGridStyles.removeFromParent();
+                this.cssGridStyles = null;
+            }
+        }
+    }
+
+    /**
+     * Sets new {@link RowComponentGenerator} invoked every time a new row for grid cells is needed.
+     * Row components are not used when {@link #getLayoutMode()} is {@link LayoutMode#CSS_GRID}.
+     * @param rowComponentGenerator {@link RowComponentGenerator} to use. If {@code null} is passed, then {@link #defaultRowComponentGenerator(int)} will be used.
+     */
+    public void setRowComponentGenerator(RowComponentGenerator<?> rowComponentGenerator) {
+        if(rowComponentGenerator == null)
+            this.rowComponentGenerator = ItemGrid::defaultRowComponentGenerator;
+        else this.rowComponentGenerator = rowComponentGenerator;
+        this.repaintAllItems();
+    }
+
+    /**
+     * Returns current {@link RowComponentGenerator}.
+     * @return A {@link RowComponentGenerator}. Never {@code null}.
      */
-    public void setColumnCount(int columnCount) {
-        this.columnCount = Math.max(1, columnCount);
-        this.repaintAllItems();
+    public RowComponentGenerator<?> getRowComponentGenerator() {
+        return rowComponentGenerator;
     }
 
     /**
-     * Chains {@link #setColumnCount(int)} and returns itself.
-     * @param columnCount Number of columns.
+     * Chains {@link #setRowComponentGenerator(RowComponentGenerator)} and returns itself.
+     * @param generator A {@link RowComponentGenerator} to use.
      * @return This.
-     * @see #setColumnCount(int)
+     * @see #setRowComponentGenerator(RowComponentGenerator)
      */
-    public ItemGrid<T> withColumnCount(int columnCount) {
-        this.setColumnCount(columnCount);
+    public ItemGrid<T> withRowComponentGenerator(RowComponentGenerator<?> generator) {
+        this.setRowComponentGenerator(generator);
         return this;
     }
 
-    @Override
-    public void setItems(Collection<T> collection) {
-        this.repaintAllItems(collection);
+    /**
+     * Checks whether or not multiple cells can be selected at the same time.
+     * @return {@code true} when multiple selection is on, {@code false} otherwise (and by default).
+     */
+    public boolean isMultiSelection() {
+        return this.multiSelection;
     }
 
     /**
-     * Returns the number of cells.
-     * @return Number of cells.
+     * Turns multiple selection on or off.
+     * When it is on, clicking a cell toggles its selection and clicking with shift pressed selects all cells between the clicked one and the one clicked previously.
+     * The value of this component is then the selected item with the lowest index. Use {@link #getSelectedItems()} to get all of them.
+     * When multiple selection is turned off, only the selected cell with the lowest index remains selected.
+     * @param multiSelection Whether or not to allow multiple selection.
      */
-    public int size() {
-        return this.cells.size();
+    public void setMultiSelection(boolean multiSelection) {
+        if(multiSelection == this.multiSelection)
+            return;
+        if(multiSelection) {
+            this.multiSelection = true;
+            if(this.markedAsSelected != null) {
+                this.selectionAnchor = this.indexOf(this.markedAsSelected);
+                this.selectedIndexes.set(this.selectionAnchor);
+                this.markedAsSelected = null;
+            }
+        }
+        else {
+            final int first = this.selectedIndexes.nextSetBit(0);
+            final BitSet remaining = new BitSet();
+            if(first >= 0)
+                remaining.set(first);
+            this.changeSelection(remaining);
+            this.multiSelection = false;
+            this.selectedIndexes.clear();
+            this.selectionAnchor = -1;
+            this.markedAsSelected = first >= 0 ? this.cells.get(first) : null;
+        }
+        this.updateClientSideSelection();
+        this.updateValue();
     }
 
     /**
-     * Returns a list with information about each cell.
-     * @return A list with {@link CellInformation}. Never {@code null}. Changes to the resulting object do not affect the grid.
+     * Chains {@link #setMultiSelection(boolean)} and returns itself.
+     * @param multiSelection Whether or not to allow multiple selection.
+     * @return This.
+     * @see #setMultiSelection(boolean)
      */
-    public List<CellInformation<T>> getCellInformation() {
-        return new ArrayList<>(this.cells);
+    public ItemGrid<T> withMultiSelection(boolean multiSelection) {
+        this.setMultiSelection(multiSelection);
+        return this;
     }
 
     /**
-     * Returns {@link CellInformation} about currently selected cell.
-     * @return A {@link CellInformation}, if any cell is currently selected.
+     * Returns indexes of selected cells.
+     * @return A {@link BitSet} with indexes of selected cells. Changes to the resulting object do not affect the grid.
      */
-    public Optional<CellInformation<T>> getSelectedCellInformation() {
-        return Optional.ofNullable(this.markedAsSelected);
+    public BitSet getSelectedIndexes() {
+        if(this.multiSelection)
+            return (BitSet) this.selectedIndexes.clone();
+        final BitSet result = new BitSet();
+        this.getSelectedCellInformation().map(this::indexOf).ifPresent(result::set);
+        return result;
     }
 
     /**
-     * Returns {@link CellInformation} that corresponds to the provided value.
-     * @param value A value to look for.
-     * @return A {@link CellInformation}, if a cell corresponding to the provided value is available.
-     * @see #setItems(Object[])
-     * @see #setItems(Collection)
-     * @see #setItems(Stream)
+     * Returns all selected items, in the order of cells.
+     * @return A list of selected items. Changes to the resulting object do not affect the grid.
      */
-    public Optional<CellInformation<T>> getCellInformation(T value) {
-        return this.cells.stream().filter(cell -> Objects.equals(cell.getValue(), value)).findFirst();
+    public List<T> getSelectedItems() {
+        return this.getSelectedIndexes().stream().mapToObj(index -> this.cells.get(index).getValue()).collect(Collectors.toList());
     }
 
     /**
-     * Returns {@link CellInformation} that corresponds to the cell of given coordinates.
-     * @param row Row number (0-based).
-     * @param column Column number (0-based).
-     * @return A {@link CellInformation}, if a cell corresponding to the given coordinates is available.
-     * @see #setColumnCount(int)
-     * @see #getColumnCount()
-     * @see #getRowCount()
+     * Checks whether or not the cell with given index is selected.
+     * @param index Index of a cell (0-based, {@code row * getColumnCount() + column}).
+     * @return {@code true} when the cell is selected.
      */
-    public Optional<CellInformation<T>> getCellInformation(int row, int column) {
-        return this.cells.stream().filter(cell -> cell.getRow() == row && cell.getColumn() == column).findFirst();
+    public boolean isSelected(int index) {
+        if(this.multiSelection)
+            return index >= 0 && this.selectedIndexes.get(index);
+        return this.getSelectedCellInformation().map(this::indexOf).filter(selected -> selected == index).isPresent();
     }
 
     /**
-     * Returns a {@link Stream} of all {@link Component}s in the cells.
-     * @return A {@link Stream}. Never {@code null}.
-     * @see #setCellGenerator(CellGenerator)
+     * Selects all cells between two indexes (both inclusive), in addition to already selected ones.
+     * Has no effect unless {@link #isMultiSelection()}.
+     * @param fromIndex Index of one of the cells.
+     * @param toIndex Index of the other cell.
      */
-    public Stream<Component> getCellComponents() {
-        return this.cells.stream().map(CellInformation::getComponent);
+    public void selectRange(int fromIndex, int toIndex) {
+        final int from = Math.max(0, Math.min(fromIndex, toIndex));
+        final int to = Math.min(this.size() - 1, Math.max(fromIndex, toIndex));
+        if(this.multiSelection && from <= to) {
+            final BitSet selection = (BitSet) this.selectedIndexes.clone();
+            selection.set(from, to + 1);
+            this.changeSelection(selection);
+            this.updateValue();
+        }
     }
 
     /**
-     * Sets new {@link RowComponentGenerator} invoked every time a new row for grid cells is needed.
-     * @param rowComponentGenerator {@link RowComponentGenerator} to use. If {@code null} is passed, then {@link #defaultRowComponentGenerator(int)} will be used.
+     * Selects all cells. Has no effect unless {@link #isMultiSelection()}.
      */
-    public void setRowComponentGenerator(RowComponentGenerator<?> rowComponentGenerator) {
-        if(rowComponentGenerator == null)
-            this.rowComponentGenerator = ItemGrid::defaultRowComponentGenerator;
-        else this.rowComponentGenerator = rowComponentGenerator;
+    public void selectAll() {
+        if(this.multiSelection) {
+            final BitSet selection = new BitSet(this.size());
+            selection.set(0, this.size());
+            this.changeSelection(selection);
+            this.updateValue();
+        }
+    }
+
+    /**
+     * Deselects all cells. Has no effect unless {@link #isMultiSelection()}; use {@link #clear()} to deselect when multiple selection is off.
+     */
+    public void deselectAll() {
+        if(this.multiSelection) {
+            this.changeSelection(new BitSet());
+            this.updateValue();
+        }
+    }
+
+    /**
+     * Selects cells that are not selected and deselects those that are. Has no effect unless {@link #isMultiSelection()}.
+     */
+    public void invertSelection() {
+        if(this.multiSelection) {
+            final BitSet selection = (BitSet) this.selectedIndexes.clone();
+            selection.flip(0, this.size());
+            this.changeSelection(selection);
+            this.updateValue();
+        }
+    }
+
+    /**
+     * Adds a listener that will be notified whenever multiple selection changes.
+     * @param listener Listener to add.
+     * @return A {@link Registration} that can be used to stop listening.
+     */
+    public Registration addCellMultiSelectionListener(CellMultiSelectionListener<T> listener) {
+        this.multiSelectionListeners.add(listener);
+        return () -> this.multiSelectionListeners.remove(listener);
+    }
+
+    /**
+     * Returns the pool of detached cell components. It is only used when {@link #getCellGenerator()} is a {@link RecyclingCellGenerator}.
+     * The returned object can be used to check pool size and hit rate, or to change its capacity.
+     * @return A {@link CellComponentPool}. Never {@code null}.
+     */
+    public CellComponentPool getCellComponentPool() {
+        return this.cellComponentPool;
+    }
+
+    /**
+     * Sets the maximum number of detached cell components kept for reuse.
+     * @param capacity Capacity of the pool. {@code 0} turns off recycling.
+     * @see CellComponentPool#setCapacity(int)
+     */
+    public void setCellComponentPoolCapacity(int capacity) {
+        this.cellComponentPool.setCapacity(capacity);
+    }
+
+    /**
+     * Chains {@link #setCellComponentPoolCapacity(int)} and returns itself.
+     * @param capacity Capacity of the pool.
+     * @return This.
+     * @see #setCellComponentPoolCapacity(int)
+     */
+    public ItemGrid<T> withCellComponentPoolCapacity(int capacity) {
+        this.setCellComponentPoolCapacity(capacity);
+        return this;
+    }
+
+    /**
+     * Turns asynchronous cell generation on or off. When it is on, each new cell is first displayed as a placeholder,
+     * and its component is generated by {@link #getCellGenerator()} on the given {@link Executor}; it replaces the placeholder through {@link UI#access(com.vaadin.flow.server.Command)} as soon as it is ready.
+     * At most {@link #getAsyncConcurrencyLimit()} cells are generated at the same time. Generation that fails or takes longer than {@link #getAsyncTimeout()}
+     * is replaced with {@link #getFallbackCellGenerator()}. Repainting the grid cancels generation of all its cells; detaching it pauses generation until it is attached again.
+     * Cancelled or timed out generators are interrupted, and a generator that ignores the interruption counts towards the concurrency limit until it returns.
+     * Cell generators used this way must not rely on the session lock being held. This has no effect on {@link RecyclingCellGenerator}s and on the default cell generator.
+     * A {@link TwoPhaseCellGenerator} is then no longer prepared in parallel for all cells; instead, each cell goes through both phases in the background.
+     * Only cells generated after calling this method are affected.
+     * @param executor Executor to generate cells on. If {@code null} is passed, cells are generated immediately.
+     */
+    public void setAsyncCellGeneration(Executor executor) {
+        this.asyncExecutor = executor;
+        if(executor == null) {
+            // remaining placeholders are generated now
+            final List<CellInformation<T>> remaining = new ArrayList<>(this.runningAsyncCells.keySet());
+            remaining.addAll(this.pendingAsyncCells);
+            this.cancelAsyncCellGeneration(false);
+            final int generation = this.asyncGeneration;
+            remaining.forEach(cell -> this.finishAsyncCellGeneration(generation, cell, this.getCellGenerator().generateComponent(cell.getValue(), cell.getRow(), cell.getColumn())));
+        }
+        else this.startAsyncCellGeneration();
+    }
+
+    /**
+     * Chains {@link #setAsyncCellGeneration(Executor)} and returns itself.
+     * @param executor Executor to generate cells on.
+     * @return This.
+     * @see #setAsyncCellGeneration(Executor)
+     */
+    public ItemGrid<T> withAsyncCellGeneration(Executor executor) {
+        this.setAsyncCellGeneration(executor);
+        return this;
+    }
+
+    /**
+     * Checks whether or not cells are generated asynchronously.
+     * @return {@code true} when an {@link Executor} has been set with {@link #setAsyncCellGeneration(Executor)}.
+     */
+    public boolean isAsyncCellGeneration() {
+        return this.asyncExecutor != null;
+    }
+
+    /**
+     * Returns the number of cells that still display a placeholder, because their generation is waiting or in progress.
+     * @return Number of cells not yet generated.
+     */
+    public int getPendingCellCount() {
+        return this.pendingAsyncCells.size() + this.runningAsyncCells.size();
+    }
+
+    /**
+     * Returns the maximum number of cells generated at the same time when asynchronous cell generation is on.
+     * @return Concurrency limit.
+     */
+    public int getAsyncConcurrencyLimit() {
+        return this.asyncConcurrencyLimit;
+    }
+
+    /**
+     * Sets the maximum number of cells generated at the same time when asynchronous cell generation is on.
+     * @param limit Concurrency limit. Values less than {@code 1} are replaced with {@code 1}.
+     */
+    public void setAsyncConcurrencyLimit(int limit) {
+        this.asyncConcurrencyLimit = Math.max(1, limit);
+        this.startAsyncCellGeneration();
+    }
+
+    /**
+     * Chains {@link #setAsyncConcurrencyLimit(int)} and returns itself.
+     * @param limit Concurrency limit.
+     * @return This.
+     * @see #setAsyncConcurrencyLimit(int)
+     */
+    public ItemGrid<T> withAsyncConcurrencyLimit(int limit) {
+        this.setAsyncConcurrencyLimit(limit);
+        return this;
+    }
+
+    /**
+     * Returns the time after which asynchronous generation of a cell is abandoned.
+     * @return Timeout. Never {@code null}.
+     */
+    public Duration getAsyncTimeout() {
+        return this.asyncTimeout;
+    }
+
+    /**
+     * Sets the time after which asynchronous generation of a cell is abandoned and {@link #getFallbackCellGenerator()} is used instead.
+     * Affects cells whose generation starts afterwards.
+     * @param timeout Timeout. If {@code null} is passed, {@link #DEFAULT_ASYNC_TIMEOUT} will be used.
+     */
+    public void setAsyncTimeout(Duration timeout) {
+        this.asyncTimeout = Optional.ofNullable(timeout).orElse(DEFAULT_ASYNC_TIMEOUT);
+    }
+
+    /**
+     * Chains {@link #setAsyncTimeout(Duration)} and returns itself.
+     * @param timeout Timeout.
+     * @return This.
+     * @see #setAsyncTimeout(Duration)
+     */
+    public ItemGrid<T> withAsyncTimeout(Duration timeout) {
+        this.setAsyncTimeout(timeout);
+        return this;
+    }
+
+    /**
+     * Returns the generator of placeholders displayed until cells are generated asynchronously.
+     * @return A {@link CellGenerator}. Never {@code null}.
+     */
+    public CellGenerator<T> getPlaceholderGenerator() {
+        return this.placeholderGenerator;
+    }
+
+    /**
+     * Sets the generator of placeholders displayed until cells are generated asynchronously. Placeholders should be cheap to produce.
+     * @param placeholderGenerator A {@link CellGenerator}. If {@code null} is passed, {@link #defaultPlaceholderGenerator(Object, int, int)} will be used.
+     */
+    public void setPlaceholderGenerator(CellGenerator<T> placeholderGenerator) {
+        this.placeholderGenerator = Optional.ofNullable(placeholderGenerator).orElse(ItemGrid::defaultPlaceholderGenerator);
+    }
+
+    /**
+     * Chains {@link #setPlaceholderGenerator(CellGenerator)} and returns itself.
+     * @param placeholderGenerator A {@link CellGenerator}.
+     * @return This.
+     * @see #setPlaceholderGenerator(CellGenerator)
+     */
+    public ItemGrid<T> withPlaceholderGenerator(CellGenerator<T> placeholderGenerator) {
+        this.setPlaceholderGenerator(placeholderGenerator);
+        return this;
+    }
+
+    /**
+     * Returns the generator used when asynchronous generation of a cell fails or times out.
+     * @return A {@link CellGenerator}. Never {@code null}.
+     */
+    public CellGenerator<T> getFallbackCellGenerator() {
+        return this.fallbackCellGenerator;
+    }
+
+    /**
+     * Sets the generator used when asynchronous generation of a cell fails or times out. It is called with the session lock held.
+     * @param fallbackCellGenerator A {@link CellGenerator}. If {@code null} is passed, {@link #defaultCellGenerator(Object, int, int)} will be used.
+     */
+    public void setFallbackCellGenerator(CellGenerator<T> fallbackCellGenerator) {
+        this.fallbackCellGenerator = Optional.ofNullable(fallbackCellGenerator).orElse(ItemGrid::defaultCellGenerator);
+    }
+
+    /**
+     * Chains {@link #setFallbackCellGenerator(CellGenerator)} and returns itself.
+     * @param fallbackCellGenerator A {@link CellGenerator}.
+     * @return This.
+     * @see #setFallbackCellGenerator(CellGenerator)
+     */
+    public ItemGrid<T> withFallbackCellGenerator(CellGenerator<T> fallbackCellGenerator) {
+        this.setFallbackCellGenerator(fallbackCellGenerator);
+        return this;
+    }
+
+    /**
+     * Turns rendering cells from a template on or off. When it is on, no server-side components are created for cells:
+     * each item is converted to a {@link JsonObject} with the given value provider and cells are rendered in the browser from the template.
+     * In the template, {@code [[name]]} is replaced with the escaped value of property {@code name} of the object (nested properties are separated with dots)
+     * and {@code [[index]]} with the index of the cell. For example: {@code <img src="[[image]]"><span>[[name]]</span>}.
+     * Clicks and selection are handled by cell index. Selected cells get {@link #DEFAULT_SELECTED_ITEM_CLASS_NAME};
+     * {@link CellGenerator}, {@link CellSelectionHandler}, {@link RowComponentGenerator} and {@link LayoutMode} are not used. Repaints all items.
+     * @param template Template of a single cell. If {@code null} is passed, template rendering is turned off.
+     * @param valueProvider Converts items to JSON objects. If {@code null} is passed, template rendering is turned off.
+     */
+    public void setTemplateRendering(String template, ValueProvider<T, JsonObject> valueProvider) {
+        if(template == null || valueProvider == null) {
+            if(this.templateCells != null) {
+                this.templateCells.getElement().removeFromParent();
+                this.templateCells = null;
+                this.templateValueProvider = null;
+            }
+        }
+        else {
+            if(this.templateCells == null) {
+                this.templateCells = new TemplateCellsElement();
+                this.templateCells.getElement().setProperty("selectedClassName", DEFAULT_SELECTED_ITEM_CLASS_NAME);
+                this.templateCells.getElement().addEventListener("cell-click", event -> this.clickTemplateCell(
+                        (int) event.getEventData().getNumber(CELL_INDEX_EVENT_DATA),
+                        event.getEventData().hasKey(TEMPLATE_SHIFT_KEY_EVENT_DATA) && event.getEventData().getBoolean(TEMPLATE_SHIFT_KEY_EVENT_DATA)
+                )).addEventData(CELL_INDEX_EVENT_DATA).addEventData(TEMPLATE_SHIFT_KEY_EVENT_DATA);
+                final Element contentsElement = ((Component) this.contents).getElement();
+                this.getElement().insertChild(this.getElement().indexOfChild(contentsElement) + 1, this.templateCells.getElement());
+            }
+            this.templateCells.getElement().setProperty("cellTemplate", template);
+            this.templateValueProvider = valueProvider;
+        }
+        this.updateClientSideSelection();
         this.repaintAllItems();
     }
 
     /**
-     * Returns current {@link RowComponentGenerator}.
-     * @return A {@link RowComponentGenerator}. Never {@code null}.
+     * Chains {@link #setTemplateRendering(String, ValueProvider)} and returns itself.
+     * @param template Template of a single cell.
+     * @param valueProvider Converts items to JSON objects.
+     * @return This.
+     * @see #setTemplateRendering(String, ValueProvider)
      */
-    public RowComponentGenerator<?> getRowComponentGenerator() {
-        return rowComponentGenerator;
+    public ItemGrid<T> withTemplateRendering(String template, ValueProvider<T, JsonObject> valueProvider) {
+        this.setTemplateRendering(template, valueProvider);
+        return this;
     }
 
     /**
-     * Chains {@link #setRowComponentGenerator(RowComponentGenerator)} and returns itself.
-     * @param generator A {@link RowComponentGenerator} to use.
+     * Checks whether or not cells are rendered from a template in the browser.
+     * @return {@code true} when {@link #setTemplateRendering(String, ValueProvider)} is on.
+     */
+    public boolean isTemplateRendering() {
+        return this.templateCells != null;
+    }
+
+    /**
+     * Turns handling selection in the browser on or off. When it is on, clicking a cell (or pressing enter or space) styles it as selected immediately,
+     * and arrow keys, home and end move keyboard focus between cells without contacting the server.
+     * The index of the selected cell is sent to the server only after the user stops changing the selection; the value is updated then.
+     * This only works with default {@link CellSelectionHandler} and without multiple selection; otherwise the selection is handled on the server, as usual.
+     * @param clientSideSelection Whether or not to handle selection in the browser.
+     * @see #isClientSideSelectionActive()
+     */
+    public void setClientSideSelection(boolean clientSideSelection) {
+        this.clientSideSelection = clientSideSelection;
+        this.updateClientSideSelection();
+        if(clientSideSelection && this.getUI().isPresent())
+            ((Component) this.contents).getElement().executeJs(CLIENT_SIDE_SELECTION_SCRIPT, DEFAULT_SELECTED_ITEM_CLASS_NAME);
+    }
+
+    /**
+     * Chains {@link #setClientSideSelection(boolean)} and returns itself.
+     * @param clientSideSelection Whether or not to handle selection in the browser.
      * @return This.
-     * @see #setRowComponentGenerator(RowComponentGenerator)
+     * @see #setClientSideSelection(boolean)
      */
-    public ItemGrid<T> withRowComponentGenerator(RowComponentGenerator<?> generator) {
-        this.setRowComponentGenerator(generator);
+    public ItemGrid<T> withClientSideSelection(boolean clientSideSelection) {
+        this.setClientSideSelection(clientSideSelection);
         return this;
     }
 
+    /**
+     * Checks whether or not selection should be handled in the browser.
+     * @return {@code true} when {@link #setClientSideSelection(boolean)} was called with {@code true}.
+     */
+    public boolean isClientSideSelection() {
+        return this.clientSideSelection;
+    }
+
+    /**
+     * Checks whether or not selection is actually handled in the browser, which requires default {@link CellSelectionHandler},
+     * no multiple selection and no template rendering.
+     * @return {@code true} when selection is handled in the browser.
+     */
+    public boolean isClientSideSelectionActive() {
+        return this.clientSideSelection && this.defaultCellSelectionHandlerUsed && !this.multiSelection && this.templateCells == null;
+    }
+
+    /**
+     * Marks the main container, so that the browser knows whether or not to handle selection, and listens to selection made in the browser.
+     */
+    private void updateClientSideSelection() {
+        final Element container = ((Component) this.contents).getElement();
+        if(this.isClientSideSelectionActive()) {
+            container.setAttribute(CLIENT_SIDE_SELECTION_ATTRIBUTE, String.valueOf(this.getColumnCount()));
+            container.setAttribute("tabindex", "0");
+            if(this.clientSideSelectionRegistration == null) {
+                this.clientSideSelectionRegistration = container.addEventListener("item-grid-select", event ->
+                        this.selectFromClient((int) event.getEventData().getNumber(CELL_INDEX_EVENT_DATA))
+                );
+                this.clientSideSelectionRegistration.addEventData(CELL_INDEX_EVENT_DATA).debounce(CLIENT_SIDE_SELECTION_DEBOUNCE);
+            }
+        }
+        else {
+            container.removeAttribute(CLIENT_SIDE_SELECTION_ATTRIBUTE);
+            container.removeAttribute("tabindex");
+            if(this.clientSideSelectionRegistration != null) {
+                this.clientSideSelectionRegistration.remove();
+                this.clientSideSelectionRegistration = null;
+            }
+        }
+    }
+
+    /**
+     * Reacts to selection made in the browser. The cell is already styled there; the style is set on the server as well, to keep both in sync.
+     * @param index Index of the selected cell, or {@code -1} when no cell is selected.
+     */
+    private void selectFromClient(int index) {
+        if(!this.isClientSideSelectionActive())
+            return;
+        final CellInformation<T> cell = index >= 0 && index < this.size() ? this.cells.get(index) : null;
+        if(cell == this.markedAsSelected)
+            return;
+        if(this.markedAsSelected != null)
+            this.applyCellSelection(this.markedAsSelected, false);
+        this.markedAsSelected = cell;
+        if(cell != null)
+            this.applyCellSelection(cell, true);
+        this.updateValue();
+    }
+
     /**
      * Simulates clicking a cell at given coordinates (which means it updates the value).
      * Nothing happens if there is no cell that corresponds to given coordinates.
@@ -483,7 +2600,46 @@ public class ItemGrid<T>
      * @param col Column the cell is in.
      */
     void simulateCellClick(int row, int col) {
-        this.getCellInformation(row, col).ifPresent(this::clickCellAndUpdateValue);
+        this.simulateCellClick(row, col, false);
+    }
+
+    /**
+     * Simulates clicking a cell at given coordinates, optionally with shift key pressed.
+     * Nothing happens if there is no cell that corresponds to given coordinates.
+     *
+     * This method is For testing purposes only.
+     *
+     * @param row Row the cell is in.
+     * @param col Column the cell is in.
+     * @param shiftPressed Whether or not shift key is pressed.
+     */
+    void simulateCellClick(int row, int col, boolean shiftPressed) {
+        this.getCellInformation(row, col).ifPresent(information -> this.clickCellAndUpdateValue(information, shiftPressed));
+    }
+
+    /**
+     * Simulates the browser reporting the visible area when {@link LayoutMode#WINDOWED} is used.
+     *
+     * This method is For testing purposes only.
+     *
+     * @param left Horizontal scroll position, in pixels.
+     * @param top Vertical scroll position, in pixels.
+     * @param width Width of the viewport, in pixels.
+     * @param height Height of the viewport, in pixels.
+     */
+    void simulateViewport(double left, double top, double width, double height) {
+        this.updateViewport(left, top, width, height);
+    }
+
+    /**
+     * Simulates the browser reporting selection when {@link #isClientSideSelectionActive()}.
+     *
+     * This method is For testing purposes only.
+     *
+     * @param index Index of the selected cell, or {@code -1} when no cell is selected.
+     */
+    void simulateClientSideSelection(int index) {
+        this.selectFromClient(index);
     }
 
 }
@@ -0,0 +1,51 @@
+package org.vaadin.miki.superfields.itemgrid;
+
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+/**
+ * Interface for objects providing consecutive pages of items for {@link ItemGrid} with infinite scrolling.
+ * @param <T> Type of items.
+ * @author miki
+ * @since 2020-05-22
+ */
+@FunctionalInterface
+public interface ItemPageLoader<T> extends Serializable {
+
+    /**
+     * Creates a loader that fetches pages from a {@link DataProvider}. No sorting or filtering is applied.
+     * @param dataProvider Data provider to fetch items from.
+     * @param <V> Type of items.
+     * @return An {@link ItemPageLoader}.
+     */
+    static <V> ItemPageLoader<V> fromDataProvider(DataProvider<V, ?> dataProvider) {
+        return (offset, limit) -> fetch(dataProvider, offset, limit);
+    }
+
+    /**
+     * Fetches a page of items from given data provider.
+     * @param dataProvider Data provider.
+     * @param offset Index of the first item.
+     * @param limit Maximum number of items.
+     * @param <V> Type of items.
+     * @param <F> Type of filter.
+     * @return A collection of items.
+     */
+    private static <V, F> Collection<V> fetch(DataProvider<V, F> dataProvider, int offset, int limit) {
+        return dataProvider.fetch(new Query<>(offset, limit, Collections.emptyList(), null, null)).collect(Collectors.toList());
+    }
+
+    /**
+     * Loads a page of items.
+     * @param offset Number of items already loaded; index of the first item to return.
+     * @param limit Maximum number of items to return.
+     * @return Items. Must not be {@code null}. When there are fewer items than {@code limit}, no further pages will be requested.
+     */
+    Collection<T> loadItems(int offset, int limit);
+
+}
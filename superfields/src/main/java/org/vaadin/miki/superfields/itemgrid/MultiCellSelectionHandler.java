@@ -0,0 +1,23 @@
+package org.vaadin.miki.superfields.itemgrid;
+
+/**
+ * A {@link CellSelectionHandler} that can handle a change of multiple selection in one go.
+ * When such handler is used in {@link ItemGrid} with multiple selection, changes of many cells at once (for example {@link ItemGrid#selectAll()})
+ * result in one call to {@link #cellMultiSelectionChanged(CellMultiSelectionEvent)} instead of one {@link CellSelectionEvent} per changed cell.
+ * Other handlers (except the default one) are always notified about each cell separately.
+ *
+ * @param <T> Type of data associated with the grid.
+ * @author miki
+ * @since 2020-06-10
+ */
+public interface MultiCellSelectionHandler<T> extends CellSelectionHandler<T> {
+
+    /**
+     * Triggered whenever selection of (possibly) many cells has been changed at once.
+     * Cells can be found with {@link ItemGrid#getCellInformationAt(int)}; those not in the window of {@link ItemGrid.LayoutMode#WINDOWED} have no component
+     * and should be skipped (they get their selection with {@link #cellSelectionChanged(CellSelectionEvent)} when their components are created).
+     * @param event Information about the change.
+     */
+    void cellMultiSelectionChanged(CellMultiSelectionEvent<T> event);
+
+}
@@ -0,0 +1,40 @@
+package org.vaadin.miki.superfields.itemgrid;
+
+import com.vaadin.flow.component.Component;
+
+/**
+ * A {@link CellGenerator} that separates creating a cell component from binding it to an item.
+ * When used in an {@link ItemGrid}, components of cells that are no longer needed are kept in a {@link CellComponentPool}
+ * and bound again to new items instead of creating new components.
+ *
+ * @param <T> Type of data associated with the cell.
+ * @param <C> Type of component produced by this generator.
+ * @author miki
+ * @since 2020-05-20
+ */
+public interface RecyclingCellGenerator<T, C extends Component> extends CellGenerator<T> {
+
+    /**
+     * Creates a new, empty component. The component will be bound with {@link #bind(Component, Object, int, int)} before being displayed.
+     * @return A component. Must not be {@code null}.
+     */
+    C create();
+
+    /**
+     * Binds a component to given value in given row and column.
+     * The component may have been previously bound to a different value, so this method must reset its entire state.
+     * @param component Component to bind. Previously returned by {@link #create()}.
+     * @param value Value to bind the component to.
+     * @param row Row the component will be placed in.
+     * @param column Column the component will be placed in.
+     */
+    void bind(C component, T value, int row, int column);
+
+    @Override
+    default Component generateComponent(T value, int row, int column) {
+        final C component = this.create();
+        this.bind(component, value, row, column);
+        return component;
+    }
+
+}
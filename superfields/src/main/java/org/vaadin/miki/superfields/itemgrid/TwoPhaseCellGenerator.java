@@ -0,0 +1,42 @@
+package org.vaadin.miki.superfields.itemgrid;
+
+import com.vaadin.flow.component.Component;
+
+/**
+ * A {@link CellGenerator} that separates preparing data for a cell from creating its component.
+ * When {@link ItemGrid} (re)paints many cells at once, {@link #prepare(Object, int, int)} is called in parallel for all of them
+ * (on the common {@link java.util.concurrent.ForkJoinPool}) and then {@link #render(Object)} is called for each cell, one by one, with the session lock held.
+ * This only happens in {@link ItemGrid.LayoutMode#ROWS} and {@link ItemGrid.LayoutMode#CSS_GRID} layouts, without template rendering
+ * and with asynchronous cell generation turned off; otherwise {@link #generateComponent(Object, int, int)} is called for each cell separately
+ * (in the background, when {@link ItemGrid#setAsyncCellGeneration(java.util.concurrent.Executor)} is used).
+ *
+ * @param <T> Type of data associated with the cell.
+ * @param <M> Type of model prepared for each cell.
+ * @author miki
+ * @since 2020-05-24
+ */
+public interface TwoPhaseCellGenerator<T, M> extends CellGenerator<T> {
+
+    /**
+     * Prepares everything that is needed to render a cell. This is where expensive computations should be done.
+     * This method must be thread-safe and must not create components or rely on thread-bound objects, like {@code UI.getCurrent()}.
+     * @param value Value to prepare the cell for.
+     * @param row Row the cell will be placed in.
+     * @param column Column the cell will be placed in.
+     * @return A model of the cell; passed to {@link #render(Object)}.
+     */
+    M prepare(T value, int row, int column);
+
+    /**
+     * Creates a component from a previously prepared model. This method should be cheap.
+     * @param model Model returned by {@link #prepare(Object, int, int)}.
+     * @return A component. Must not be {@code null}.
+     */
+    Component render(M model);
+
+    @Override
+    default Component generateComponent(T value, int row, int column) {
+        return this.render(this.prepare(value, row, column));
+    }
+
+}
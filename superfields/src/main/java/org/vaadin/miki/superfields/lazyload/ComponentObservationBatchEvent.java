@@ -0,0 +1,39 @@
+package org.vaadin.miki.superfields.lazyload;
+
+import com.vaadin.flow.component.ComponentEvent;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Information about all changes reported by the browser in one go to {@link ComponentObserver}.
+ * Each change has already been broadcast as a {@link ComponentObservationEvent}.
+ *
+ * @author miki
+ * @since 2020-06-10
+ */
+public class ComponentObservationBatchEvent extends ComponentEvent<ComponentObserver> {
+
+    private final List<ComponentObservationEvent> events;
+
+    /**
+     * Constructs a prototypical Event.
+     *
+     * @param source The object on which the Event initially occurred
+     * @param events Events that happened, in the order they were reported.
+     * @throws IllegalArgumentException if source is null
+     */
+    public ComponentObservationBatchEvent(ComponentObserver source, List<ComponentObservationEvent> events) {
+        super(source, true);
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    /**
+     * Returns events that happened.
+     * @return A non-modifiable list of events, in the order they were reported.
+     */
+    public List<ComponentObservationEvent> getEvents() {
+        return this.events;
+    }
+
+}
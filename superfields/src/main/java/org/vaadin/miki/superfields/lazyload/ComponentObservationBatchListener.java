@@ -0,0 +1,12 @@
+package org.vaadin.miki.superfields.lazyload;
+
+import com.vaadin.flow.component.ComponentEventListener;
+
+/**
+ * Interface for listening to {@link ComponentObservationBatchEvent}.
+ *
+ * @author miki
+ * @since 2020-06-10
+ */
+public interface ComponentObservationBatchListener extends ComponentEventListener<ComponentObservationBatchEvent> {
+}
@@ -11,11 +11,17 @@ import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.internal.JsonSerializer;
 import com.vaadin.flow.shared.Registration;
 import com.vaadin.flow.templatemodel.TemplateModel;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.vaadin.miki.markers.WithIdMixin;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -32,10 +38,15 @@ public class ComponentObserver extends PolymerTemplate<TemplateModel> implements
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ComponentObserver.class);
 
+    private static final String BATCH_DELAY_PROPERTY = "batchDelay";
+
     private final double[] ranges;
 
-    private final Map<String, Component> observedComponents = new HashMap<>();
-    private final Map<Component, Registration> observedDetachedListeners = new HashMap<>();
+    // both ways, so that finding a component or its key does not depend on how many components are observed
+    private final Map<Integer, Component> observedComponents = new HashMap<>();
+    private final Map<Component, Integer> observedKeys = new IdentityHashMap<>();
+    private final Map<Component, Registration> observedDetachedListeners = new IdentityHashMap<>();
+    private final Map<Component, VisibilityTransition[]> reportedTransitions = new IdentityHashMap<>();
 
     private final Element rootElement;
     private final String rootMargin;
@@ -97,9 +108,19 @@ public class ComponentObserver extends PolymerTemplate<TemplateModel> implements
     }
 
     @ClientCallable
-    private void componentStatusChanged(String key, double range) {
-        LOGGER.debug("component with key {} changed visibility range to {}", key, range);
-        this.fireComponentObservationEvent(new ComponentObservationEvent(this, this.observedComponents.get(key), range));
+    private void componentStatusesChanged(JsonArray changes) {
+        LOGGER.debug("received {} visibility changes", changes.length());
+        final List<ComponentObservationEvent> events = new ArrayList<>(changes.length());
+        for(int position = 0; position < changes.length(); position++) {
+            final JsonObject change = changes.getObject(position);
+            // components unobserved in the meantime are ignored
+            final Component component = this.observedComponents.get((int) change.getNumber("key"));
+            if(component != null)
+                events.add(new ComponentObservationEvent(this, component, change.getNumber("range")));
+        }
+        events.forEach(this::fireComponentObservationEvent);
+        if(!events.isEmpty())
+            this.getEventBus().fireEvent(new ComponentObservationBatchEvent(this, events));
     }
 
     /**
@@ -111,19 +132,32 @@ public class ComponentObserver extends PolymerTemplate<TemplateModel> implements
     }
 
     /**
-     * Observes the given component with given index. Will override the component currently associated with given index, if the was any.
-     * @param indexString Index string to register the component with.
+     * Observes the given component with given key. Will override the component currently associated with given key, if the was any.
+     * @param key Key to register the component with.
      * @param component Component to observe.
      */
-    protected void observe(String indexString, Component component) {
-        this.observedComponents.put(indexString, component);
-        this.observedDetachedListeners.put(component, component.addDetachListener(event -> this.unobserve(event.getSource())));
+    protected void observe(int key, Component component) {
+        this.observedComponents.put(key, component);
+        this.observedKeys.put(component, key);
+        Optional.ofNullable(this.observedDetachedListeners.put(component, component.addDetachListener(event -> this.unobserve(event.getSource()))))
+                .ifPresent(Registration::remove);
 
         this.getElement().getNode().runWhenAttached(ui -> ui.beforeClientResponse(this, executionContext ->
-                this.getElement().callJsFunction("observe", component.getElement(), indexString)
+                this.getElement().callJsFunction("observe", component.getElement(), key, this.getReportedTransitionsJson(component))
         ));
     }
 
+    private JsonArray getReportedTransitionsJson(Component component) {
+        final JsonArray result = Json.createArray();
+        for(VisibilityTransition transition: this.reportedTransitions.getOrDefault(component, new VisibilityTransition[0]))
+            result.set(result.length(), transition.toJson());
+        return result;
+    }
+
+    private Optional<Integer> findKey(Component component) {
+        return Optional.ofNullable(this.observedKeys.get(component));
+    }
+
     /**
      * Starts observation of given components.
      * If a given component is already being observed, it will not be observed an additional time.
@@ -132,10 +166,8 @@ public class ComponentObserver extends PolymerTemplate<TemplateModel> implements
      */
     public void observe(Component... components) {
         for (Component component : components)
-            if(!this.observedComponents.containsValue(component)) {
-                final String indexString = "component-observer-"+(this.sequence++);
-                this.observe(indexString, component);
-            }
+            if(!this.observedKeys.containsKey(component))
+                this.observe(this.sequence++, component);
     }
 
     /**
@@ -145,11 +177,11 @@ public class ComponentObserver extends PolymerTemplate<TemplateModel> implements
      */
     public void unobserve(Component... components) {
         for(Component component: components) {
-            Optional<String> perhapsKey = this.observedComponents.entrySet().stream().
-                    filter(entry -> entry.getValue().equals(component)).findFirst().map(Map.Entry::getKey);
-            perhapsKey.ifPresent(key -> {
+            this.findKey(component).ifPresent(key -> {
                 final Component removed = this.observedComponents.remove(key);
-                this.observedDetachedListeners.get(removed).remove();
+                this.observedKeys.remove(removed);
+                this.observedDetachedListeners.remove(removed).remove();
+                this.reportedTransitions.remove(removed);
                 this.getElement().getNode().runWhenAttached(ui -> ui.beforeClientResponse(this, executionContext ->
                         this.getElement().callJsFunction("unobserve", removed.getElement())
                 ));
@@ -157,6 +189,34 @@ public class ComponentObserver extends PolymerTemplate<TemplateModel> implements
         }
     }
 
+    /**
+     * Limits changes of visibility of given component reported to the server to given transitions.
+     * All other changes are ignored already in the browser. Changes are reported as usual when no transitions are given.
+     * Transitions are forgotten when the component stops being observed.
+     * @param component Component that is (or will be) observed.
+     * @param transitions Transitions to report.
+     */
+    public void setReportedTransitions(Component component, VisibilityTransition... transitions) {
+        if(transitions == null || transitions.length == 0)
+            this.reportedTransitions.remove(component);
+        else this.reportedTransitions.put(component, transitions.clone());
+        this.findKey(component).ifPresent(key ->
+                this.getElement().getNode().runWhenAttached(ui -> ui.beforeClientResponse(this, executionContext ->
+                        this.getElement().callJsFunction("setTransitions", key, this.getReportedTransitionsJson(component))
+                ))
+        );
+    }
+
+    /**
+     * Returns transitions of visibility of given component that are reported to the server.
+     * @param component Component.
+     * @return A (possibly empty) array with transitions; when empty, all changes are reported.
+     * @see #setReportedTransitions(Component, VisibilityTransition...)
+     */
+    public VisibilityTransition[] getReportedTransitions(Component component) {
+        return this.reportedTransitions.getOrDefault(component, new VisibilityTransition[0]).clone();
+    }
+
     /**
      * Adds a listener that will be informed about changes in observed components.
      * @param listener Listener to add.
@@ -166,13 +226,51 @@ public class ComponentObserver extends PolymerTemplate<TemplateModel> implements
         return this.getEventBus().addListener(ComponentObservationEvent.class, listener);
     }
 
+    /**
+     * Adds a listener that will be informed about all changes reported together by the browser.
+     * Such listeners are informed after listeners added with {@link #addComponentObservationListener(ComponentObservationListener)}.
+     * @param listener Listener to add.
+     * @return Registration that can be used to stop listening.
+     */
+    public Registration addComponentObservationBatchListener(ComponentObservationBatchListener listener) {
+        return this.getEventBus().addListener(ComponentObservationBatchEvent.class, listener);
+    }
+
+    /**
+     * Returns the time the browser waits to collect visibility changes before sending them to the server.
+     * @return Number of milliseconds. {@code 0} (default) means changes are sent as soon as they are noticed.
+     */
+    public int getBatchDelay() {
+        return this.getElement().getProperty(BATCH_DELAY_PROPERTY, 0);
+    }
+
+    /**
+     * Sets the time the browser waits to collect visibility changes before sending them to the server.
+     * All changes collected in that time are sent in one request; when a component changed more than once, only its latest visibility range is sent.
+     * @param batchDelay Number of milliseconds. Negative values are replaced with {@code 0}, which sends changes as soon as they are noticed (still in one request per notification from the browser).
+     */
+    public void setBatchDelay(int batchDelay) {
+        this.getElement().setProperty(BATCH_DELAY_PROPERTY, Math.max(0, batchDelay));
+    }
+
+    /**
+     * Chains {@link #setBatchDelay(int)} and returns itself.
+     * @param batchDelay Number of milliseconds.
+     * @return This.
+     * @see #setBatchDelay(int)
+     */
+    public ComponentObserver withBatchDelay(int batchDelay) {
+        this.setBatchDelay(batchDelay);
+        return this;
+    }
+
     /**
      * Checks whether or not given {@link Component} is being observed by this object.
      * @param component A {@link Component}.
      * @return {@code true} when the {@code component} has been added through {@link #observe(Component...)} and not removed with {@link #unobserve(Component...)}.
      */
     public boolean isObserving(Component component) {
-        return this.observedComponents.containsValue(component);
+        return this.observedKeys.containsKey(component);
     }
 
     /**
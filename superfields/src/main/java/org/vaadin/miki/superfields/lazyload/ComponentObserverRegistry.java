@@ -0,0 +1,162 @@
+package org.vaadin.miki.superfields.lazyload;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.shared.Registration;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Shares {@link ComponentObserver}s between components in the same {@link UI}.
+ * There is at most one observer for each distinct combination of viewport root, root margin and visibility ranges,
+ * so the number of observers (both on the server and in the browser) does not grow with the number of observed components.
+ * Events are passed only to the listener registered for the observed component.
+ * Used by {@link LazyLoad} and {@link ObservedField}.
+ *
+ * @author miki
+ * @since 2020-06-10
+ */
+public class ComponentObserverRegistry implements Serializable {
+
+    /**
+     * Returns the registry for given {@link UI}, creating it if needed.
+     * @param ui A {@link UI}.
+     * @return A registry shared by everything in that {@link UI}.
+     */
+    public static ComponentObserverRegistry get(UI ui) {
+        ComponentObserverRegistry result = ComponentUtil.getData(ui, ComponentObserverRegistry.class);
+        if(result == null) {
+            result = new ComponentObserverRegistry(ui);
+            ComponentUtil.setData(ui, ComponentObserverRegistry.class, result);
+        }
+        return result;
+    }
+
+    /**
+     * Everything that is passed to the client-side observer.
+     */
+    private static final class Configuration implements Serializable {
+        private final Component viewportRoot;
+        private final String rootMargin;
+        private final double[] ranges;
+
+        private Configuration(Component viewportRoot, String rootMargin, double[] ranges) {
+            this.viewportRoot = viewportRoot;
+            this.rootMargin = rootMargin;
+            this.ranges = (ranges == null || ranges.length == 0) ? new double[]{0.0d, 1.0d} : ranges.clone();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Configuration that = (Configuration) o;
+            return viewportRoot == that.viewportRoot &&
+                    Objects.equals(rootMargin, that.rootMargin) &&
+                    Arrays.equals(ranges, that.ranges);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(System.identityHashCode(viewportRoot), rootMargin);
+            result = 31 * result + Arrays.hashCode(ranges);
+            return result;
+        }
+    }
+
+    /**
+     * An observer together with listeners of the components it observes.
+     */
+    private static final class SharedObserver implements Serializable {
+        private final ComponentObserver observer;
+        private final Map<Component, ComponentObservationListener> listeners = new HashMap<>();
+
+        private SharedObserver(ComponentObserver observer) {
+            this.observer = observer;
+            this.observer.addComponentObservationListener(event ->
+                    Optional.ofNullable(this.listeners.get(event.getObservedComponent())).ifPresent(listener -> listener.onComponentEvent(event))
+            );
+        }
+    }
+
+    private final UI ui;
+
+    private final Map<Configuration, SharedObserver> observers = new HashMap<>();
+
+    private ComponentObserverRegistry(UI ui) {
+        this.ui = ui;
+    }
+
+    /**
+     * Starts observing given component with an observer that uses entire document as viewport and visibility ranges {@code [0.0, 1.0]}.
+     * @param component Component to observe. It will stop being observed when it gets detached.
+     * @param listener Listener to inform about changes to the component.
+     * @param transitions Transitions to report (see {@link ComponentObserver#setReportedTransitions(Component, VisibilityTransition...)}). If not specified, all changes are reported.
+     * @return Registration that can be used to stop observing.
+     * @see #observe(Component, ComponentObservationListener, Component, String, double[], VisibilityTransition...)
+     */
+    public Registration observe(Component component, ComponentObservationListener listener, VisibilityTransition... transitions) {
+        return this.observe(component, listener, null, "0px", null, transitions);
+    }
+
+    /**
+     * Starts observing given component with an observer that has given configuration.
+     * The observer is shared with all other components observed with the same configuration.
+     * If the component is already observed with the same configuration, its listener is replaced.
+     * @param component Component to observe. It will stop being observed when it gets detached.
+     * @param listener Listener to inform about changes to the component.
+     * @param viewportRoot Component to use as viewport root.
+     * @param rootMargin Root margin (CSS-like expression).
+     * @param visibilityRanges Ranges at which to trigger visibility change events. If {@code null} or empty, {@code [0.0, 1.0]} will be used.
+     * @param transitions Transitions to report (see {@link ComponentObserver#setReportedTransitions(Component, VisibilityTransition...)}). If not specified, all changes are reported.
+     * @return Registration that can be used to stop observing.
+     */
+    public Registration observe(Component component, ComponentObservationListener listener, Component viewportRoot, String rootMargin, double[] visibilityRanges, VisibilityTransition... transitions) {
+        final Configuration configuration = new Configuration(viewportRoot, rootMargin, visibilityRanges);
+        final SharedObserver shared = this.observers.computeIfAbsent(configuration, this::createObserver);
+        shared.listeners.put(component, listener);
+        shared.observer.setReportedTransitions(component, transitions);
+        shared.observer.observe(component);
+        final Registration detachRegistration = component.addDetachListener(event -> {
+            event.unregisterListener();
+            this.unobserve(configuration, component, listener);
+        });
+        return () -> {
+            detachRegistration.remove();
+            this.unobserve(configuration, component, listener);
+        };
+    }
+
+    private SharedObserver createObserver(Configuration configuration) {
+        final SharedObserver result = new SharedObserver(new ComponentObserver(configuration.viewportRoot, configuration.rootMargin, configuration.ranges));
+        this.ui.add(result.observer);
+        return result;
+    }
+
+    private void unobserve(Configuration configuration, Component component, ComponentObservationListener listener) {
+        final SharedObserver shared = this.observers.get(configuration);
+        if(shared != null && shared.listeners.remove(component, listener)) {
+            shared.observer.unobserve(component);
+            // observers with nothing to observe are not kept around
+            if(shared.listeners.isEmpty()) {
+                this.observers.remove(configuration);
+                this.ui.remove(shared.observer);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of observers currently used by this registry.
+     * @return Number of distinct configurations of observed components.
+     */
+    public int getObserverCount() {
+        return this.observers.size();
+    }
+
+}
@@ -4,7 +4,9 @@ import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.Composite;
 import com.vaadin.flow.component.HasStyle;
 import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.shared.Registration;
 import org.vaadin.miki.markers.WithIdMixin;
 
 import java.util.Optional;
@@ -14,6 +16,7 @@ import java.util.function.Supplier;
  * A component that remains empty until it gets into view. After that it displays the lazy-loaded content.
  * Note that by default the size of this component is 0px, as there is no styling to it. Be sure to apply styling.
  * As a result and by default, if there are many of lazy load components one next to another, all of them will trigger.
+ * All lazy load components in the same {@link UI} share one {@link ComponentObserver} (see {@link ComponentObserverRegistry}).
  *
  * @param <C> Type of component that is lazy-loaded.
  * @author miki
@@ -39,7 +42,7 @@ public class LazyLoad<C extends Component> extends Composite<LazyLoad.LazyLoadEl
 
     private final Supplier<C> componentProvider;
 
-    private final ComponentObserver observer = new ComponentObserver();
+    private Registration observation;
 
     private final boolean onlyLoadedOnce;
 
@@ -80,16 +83,33 @@ public class LazyLoad<C extends Component> extends Composite<LazyLoad.LazyLoadEl
         this.componentProvider = supplier;
         this.onlyLoadedOnce = !removeOnHide;
         this.getContent().addClassNames(EMPTY_CLASS_NAME);
-        this.getContent().add(this.observer);
-        this.observer.addComponentObservationListener(this::onComponentObserved);
-        this.observer.observe(this);
+        this.addAttachListener(event -> this.startObserving(event.getUI()));
+        this.addDetachListener(event -> this.stopObserving());
+    }
+
+    private void startObserving(UI ui) {
+        // content that is loaded only once does not need observing after it has been loaded
+        if(this.observation == null && (!this.onlyLoadedOnce || this.lazyLoadedContent == null))
+            // the browser only reports what matters here
+            this.observation = ComponentObserverRegistry.get(ui).observe(this, this::onComponentObserved,
+                    this.onlyLoadedOnce ?
+                            new VisibilityTransition[]{VisibilityTransition.FULLY_VISIBLE} :
+                            new VisibilityTransition[]{VisibilityTransition.FULLY_VISIBLE, VisibilityTransition.NOT_VISIBLE}
+            );
+    }
+
+    private void stopObserving() {
+        if(this.observation != null) {
+            this.observation.remove();
+            this.observation = null;
+        }
     }
 
     private void onComponentObserved(ComponentObservationEvent event) {
         if(event.isFullyVisible()) {
             this.onNowVisible();
             if(this.onlyLoadedOnce)
-                this.observer.unobserve(this);
+                this.stopObserving();
         }
         else if(event.isNotVisible())
             this.onNowHidden();
@@ -1,12 +1,11 @@
 package org.vaadin.miki.superfields.lazyload;
 
 import com.vaadin.flow.component.AbstractField;
-import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Composite;
-import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.HasStyle;
 import com.vaadin.flow.component.HasValue;
 import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.shared.Registration;
 import org.vaadin.miki.markers.WithIdMixin;
@@ -16,6 +15,7 @@ import java.util.ArrayList;
 
 /**
  * A field that changes value depending on whether or not it is currently shown on screen.
+ * All observed fields in the same {@link UI} share one {@link ComponentObserver} (see {@link ComponentObserverRegistry}).
  * @author miki
  * @since 2020-04-24
  */
@@ -27,7 +27,11 @@ public class ObservedField extends Composite<ObservedField.ObservedFieldElement>
     /**
      * This class gives a nice tag name to {@link ObservedField} in the browser.
      * The corresponding client-side module also extends {@link ComponentObserver}.
+     * @deprecated {@link ObservedField} no longer uses this element to observe itself (it uses {@link ComponentObserverRegistry} instead),
+     * so the {@link ComponentObserver} methods of this element only affect components explicitly observed through it.
+     * It is kept for compatibility with code, styles and scripts that target it, and will become a plain element in a future version.
      */
+    @Deprecated
     @Tag("observed-field")
     @JsModule("./observed-field.js")
     public static final class ObservedFieldElement extends ComponentObserver {}
@@ -45,6 +49,8 @@ public class ObservedField extends Composite<ObservedField.ObservedFieldElement>
 
     private boolean readOnly = false;
 
+    private Registration observation;
+
     /**
      * Creates a field that will set its value to whether or not it is currently shown on screen.
      */
@@ -70,10 +76,12 @@ public class ObservedField extends Composite<ObservedField.ObservedFieldElement>
         super();
         this.onlyToggleOnce = onlyToggleOnce;
         this.addClassName(this.getClass().getSimpleName().toLowerCase());
-        this.getContent().addComponentObservationListener(this::onComponentObserved);
-        this.getContent().addDetachListener(this::onObserverDetached);
-        this.getContent().addAttachListener(this::onObserverAttached);
-        this.getContent().observe(this);
+        this.addAttachListener(event -> this.startObserving(event.getUI()));
+        this.addDetachListener(event -> {
+            this.stopObserving();
+            // a detached field is not shown
+            this.setValue(false);
+        });
     }
 
     /**
@@ -90,19 +98,19 @@ public class ObservedField extends Composite<ObservedField.ObservedFieldElement>
     private void onComponentObserved(ComponentObservationEvent event) {
         this.setValue(event.isFullyVisible());
         if(event.isFullyVisible() && this.onlyToggleOnce)
-            event.getSource().unobserve(this);
+            this.stopObserving();
     }
 
-    private void onObserverAttached(AttachEvent attachEvent) {
-        // make sure the observer is observing
-        if(!this.getContent().isObserving(this))
-            this.getContent().observe(this);
+    private void startObserving(UI ui) {
+        if(this.observation == null)
+            this.observation = ComponentObserverRegistry.get(ui).observe(this, this::onComponentObserved, VisibilityTransition.FULLY_VISIBLE, VisibilityTransition.NOT_FULLY_VISIBLE);
     }
 
-    private void onObserverDetached(DetachEvent event) {
-        // when observer has been detached, it means this component has been also detached
-        // so it is now invisible
-        this.setValue(false);
+    private void stopObserving() {
+        if(this.observation != null) {
+            this.observation.remove();
+            this.observation = null;
+        }
     }
 
     /**
@@ -0,0 +1,102 @@
+package org.vaadin.miki.superfields.lazyload;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A change of visibility of an observed component that should be reported to the server.
+ * When a component is observed with transitions (see {@link ComponentObserver#setReportedTransitions(com.vaadin.flow.component.Component, VisibilityTransition...)}),
+ * the browser compares each change with the visibility range last reported for that component and sends nothing unless one of the transitions happened.
+ * Thresholds of transitions should be among the visibility ranges of the observer, otherwise the browser may not notice them.
+ *
+ * @author miki
+ * @since 2020-06-10
+ */
+public final class VisibilityTransition implements Serializable {
+
+    /**
+     * Component became fully visible.
+     */
+    public static final VisibilityTransition FULLY_VISIBLE = reaching(1.0d);
+
+    /**
+     * Component stopped being fully visible.
+     */
+    public static final VisibilityTransition NOT_FULLY_VISIBLE = droppingBelow(1.0d);
+
+    /**
+     * Component stopped being visible at all.
+     */
+    public static final VisibilityTransition NOT_VISIBLE = new VisibilityTransition("disappearing", 0.0d);
+
+    /**
+     * Creates a transition that happens when the visibility range becomes at least given threshold.
+     * @param threshold Threshold.
+     * @return A transition.
+     */
+    public static VisibilityTransition reaching(double threshold) {
+        return new VisibilityTransition("reaching", threshold);
+    }
+
+    /**
+     * Creates a transition that happens when the visibility range drops below given threshold.
+     * @param threshold Threshold.
+     * @return A transition.
+     */
+    public static VisibilityTransition droppingBelow(double threshold) {
+        return new VisibilityTransition("dropping", threshold);
+    }
+
+    private final String type;
+
+    private final double threshold;
+
+    private VisibilityTransition(String type, double threshold) {
+        this.type = type;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns the threshold of this transition.
+     * @return Threshold.
+     */
+    public double getThreshold() {
+        return this.threshold;
+    }
+
+    /**
+     * Converts this object to what the client-side code understands.
+     * @return A {@link JsonObject} with type and threshold.
+     */
+    JsonObject toJson() {
+        final JsonObject result = Json.createObject();
+        result.put("type", this.type);
+        result.put("threshold", this.threshold);
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        VisibilityTransition that = (VisibilityTransition) o;
+        return Double.compare(that.threshold, threshold) == 0 &&
+                type.equals(that.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, threshold);
+    }
+
+    @Override
+    public String toString() {
+        return "VisibilityTransition{" +
+                "type='" + type + '\'' +
+                ", threshold=" + threshold +
+                '}';
+    }
+}
@@ -0,0 +1,36 @@
+package org.vaadin.miki.superfields.tabs;
+
+import com.vaadin.flow.component.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link TabContentGenerator} that produces contents asynchronously.
+ * {@link SuperTabs} attached to a UI shows a placeholder until the future completes and then replaces it with the actual contents through {@code UI.access}.
+ *
+ * @param <V> Type of object to generate content for.
+ * @author miki
+ * @since 2020-06-10
+ */
+@FunctionalInterface
+public interface AsyncTabContentGenerator<V> extends TabContentGenerator<V> {
+
+    /**
+     * Starts generating contents that correspond to the given object.
+     * The future may be cancelled when the contents are no longer needed (for example, when the tab is removed).
+     * @param object Object to generate component for.
+     * @return A future that completes with content to be added to tabs. Must not be {@code null}.
+     */
+    CompletableFuture<Component> generateComponentAsync(V object);
+
+    /**
+     * Generates contents and waits for them. Used when asynchronous generation is not possible, for example when {@link SuperTabs} is not attached.
+     * @param object Object to generate component for.
+     * @return Content to be added to tabs.
+     */
+    @Override
+    default Component generateComponent(V object) {
+        return this.generateComponentAsync(object).join();
+    }
+
+}
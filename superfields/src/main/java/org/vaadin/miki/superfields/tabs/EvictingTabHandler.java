@@ -0,0 +1,336 @@
+package org.vaadin.miki.superfields.tabs;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.HasComponents;
+import com.vaadin.flow.component.tabs.Tab;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.SerializableBiConsumer;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializablePredicate;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A {@link TabHandler} that keeps only a limited number of tab contents alive, evicting the least recently selected ones.
+ * Evicted contents are removed (through a delegate {@link TabHandler}) and forgotten by {@link SuperTabs},
+ * which generates them again with its {@link TabContentGenerator} when the tab is selected again.
+ * Contents passed explicitly to {@link SuperTabs#addTab(Object, Tab, Component)} cannot be generated again and thus are never evicted.
+ *
+ * The number of alive contents can be limited by count and by an estimated size. Contents of the currently selected tab are never evicted.
+ * Optionally, state of the contents (for example, values of fields) can be saved before eviction and restored once the contents are generated again.
+ *
+ * An instance of this handler should be used by only one {@link SuperTabs}.
+ *
+ * @author miki
+ * @since 2020-06-10
+ */
+public class EvictingTabHandler implements TabHandler {
+
+    /**
+     * Default maximum number of alive contents.
+     */
+    public static final int DEFAULT_MAXIMUM_ALIVE_CONTENTS = 8;
+
+    /**
+     * Default size estimator. Counts the elements in the contents.
+     */
+    public static final SerializableFunction<Component, Long> DEFAULT_SIZE_ESTIMATOR = component -> countElements(component.getElement());
+
+    private static long countElements(Element element) {
+        return 1 + element.getChildren().mapToLong(EvictingTabHandler::countElements).sum();
+    }
+
+    private final TabHandler delegate;
+
+    // contents that were added, but never selected, are evicted first
+    private final Set<Tab> neverSelected = new LinkedHashSet<>();
+
+    // contents that were selected, from the least recently selected
+    private final Set<Tab> recentlySelected = new LinkedHashSet<>();
+
+    private final Map<Tab, Component> aliveContents = new HashMap<>();
+
+    private final Map<Tab, Long> sizes = new HashMap<>();
+
+    private final Map<Tab, Serializable> savedStates = new LinkedHashMap<>();
+
+    private long totalSize = 0;
+
+    private Tab selectedTab;
+
+    private int maximumAliveContents = DEFAULT_MAXIMUM_ALIVE_CONTENTS;
+
+    private long sizeBudget = Long.MAX_VALUE;
+
+    private SerializableFunction<Component, Long> sizeEstimator = DEFAULT_SIZE_ESTIMATOR;
+
+    private SerializableFunction<Component, Serializable> stateSaver;
+
+    private SerializableBiConsumer<Component, Serializable> stateRestorer;
+
+    private SerializablePredicate<Tab> evictionCallback;
+
+    private long evictionCount = 0;
+
+    /**
+     * Creates the handler that uses {@link TabHandlers#VISIBILITY_HANDLER} to show and hide contents.
+     */
+    public EvictingTabHandler() {
+        this(TabHandlers.VISIBILITY_HANDLER);
+    }
+
+    /**
+     * Creates the handler that uses {@link TabHandlers#VISIBILITY_HANDLER} to show and hide contents, with given maximum number of alive contents.
+     * @param maximumAliveContents Maximum number of alive contents.
+     */
+    public EvictingTabHandler(int maximumAliveContents) {
+        this();
+        this.setMaximumAliveContents(maximumAliveContents);
+    }
+
+    /**
+     * Creates the handler with given delegate.
+     * @param delegate A {@link TabHandler} that does the actual adding, removing, showing and hiding of contents. If {@code null} is passed, {@link TabHandlers#VISIBILITY_HANDLER} will be used.
+     */
+    public EvictingTabHandler(TabHandler delegate) {
+        this.delegate = Optional.ofNullable(delegate).orElse(TabHandlers.VISIBILITY_HANDLER);
+    }
+
+    /**
+     * Sets the callback used to ask {@link SuperTabs} to forget the contents of a tab.
+     * @param evictionCallback Callback; returns {@code true} when the contents can be evicted. May be {@code null}, in which case nothing is evicted.
+     */
+    void setEvictionCallback(SerializablePredicate<Tab> evictionCallback) {
+        this.evictionCallback = evictionCallback;
+    }
+
+    private void forget(Tab tab) {
+        this.neverSelected.remove(tab);
+        this.recentlySelected.remove(tab);
+        this.aliveContents.remove(tab);
+        this.totalSize -= Optional.ofNullable(this.sizes.remove(tab)).orElse(0L);
+    }
+
+    private boolean isOverBudget() {
+        return this.aliveContents.size() > this.maximumAliveContents || this.totalSize > this.sizeBudget;
+    }
+
+    /**
+     * Evicts contents until the limits are no longer exceeded (or there is nothing more to evict).
+     * @param exempt Tab that is being handled at the moment; its contents will not be evicted.
+     * @param contentsContainer Container with the contents.
+     */
+    private void evictIfNeeded(Tab exempt, HasComponents contentsContainer) {
+        if(this.evictionCallback == null)
+            return;
+        for(Set<Tab> candidates: List.of(this.neverSelected, this.recentlySelected)) {
+            final Iterator<Tab> iterator = candidates.iterator();
+            while (this.isOverBudget() && iterator.hasNext()) {
+                final Tab tab = iterator.next();
+                if(tab != exempt && tab != this.selectedTab && this.evictionCallback.test(tab)) {
+                    final Component component = this.aliveContents.get(tab);
+                    iterator.remove();
+                    this.forget(tab);
+                    if(this.stateSaver != null)
+                        Optional.ofNullable(this.stateSaver.apply(component)).ifPresent(state -> this.savedStates.put(tab, state));
+                    this.delegate.tabRemoved(tab, component, contentsContainer);
+                    this.evictionCount++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void tabAdded(Tab tabHeader, Component tabContents, HasComponents contentsContainer) {
+        // contents may be added again without being removed, for example after deserialization of SuperTabs
+        this.forget(tabHeader);
+        this.delegate.tabAdded(tabHeader, tabContents, contentsContainer);
+        final Serializable state = this.savedStates.remove(tabHeader);
+        if(state != null && this.stateRestorer != null)
+            this.stateRestorer.accept(tabContents, state);
+        final long size = Optional.ofNullable(this.sizeEstimator.apply(tabContents)).orElse(0L);
+        this.aliveContents.put(tabHeader, tabContents);
+        this.sizes.put(tabHeader, size);
+        this.totalSize += size;
+        this.neverSelected.add(tabHeader);
+        this.evictIfNeeded(tabHeader, contentsContainer);
+    }
+
+    @Override
+    public void tabRemoved(Tab tabHeader, Component tabContents, HasComponents contentsContainer) {
+        this.forget(tabHeader);
+        this.savedStates.remove(tabHeader);
+        if(tabHeader == this.selectedTab)
+            this.selectedTab = null;
+        this.delegate.tabRemoved(tabHeader, tabContents, contentsContainer);
+    }
+
+    @Override
+    public void tabSelected(Tab tabHeader, Component tabContents, HasComponents contentsContainer) {
+        this.selectedTab = tabHeader;
+        this.neverSelected.remove(tabHeader);
+        // moves the tab to the most recent position
+        this.recentlySelected.remove(tabHeader);
+        this.recentlySelected.add(tabHeader);
+        this.delegate.tabSelected(tabHeader, tabContents, contentsContainer);
+        this.evictIfNeeded(tabHeader, contentsContainer);
+    }
+
+    @Override
+    public void tabDeselected(Tab tabHeader, Component tabContents, HasComponents contentsContainer) {
+        if(tabHeader == this.selectedTab)
+            this.selectedTab = null;
+        this.delegate.tabDeselected(tabHeader, tabContents, contentsContainer);
+    }
+
+    /**
+     * Returns the delegate that adds, removes, shows and hides contents.
+     * @return A {@link TabHandler}.
+     */
+    public TabHandler getDelegate() {
+        return this.delegate;
+    }
+
+    /**
+     * Returns the maximum number of tab contents kept alive.
+     * @return Maximum number of alive contents.
+     */
+    public int getMaximumAliveContents() {
+        return this.maximumAliveContents;
+    }
+
+    /**
+     * Sets the maximum number of tab contents kept alive. Excess contents will be evicted next time a tab is added or selected.
+     * @param maximumAliveContents Maximum number of contents. Values less than {@code 1} are replaced with {@code 1}.
+     */
+    public void setMaximumAliveContents(int maximumAliveContents) {
+        this.maximumAliveContents = Math.max(1, maximumAliveContents);
+    }
+
+    /**
+     * Chains {@link #setMaximumAliveContents(int)} and returns itself.
+     * @param maximumAliveContents Maximum number of contents.
+     * @return This.
+     * @see #setMaximumAliveContents(int)
+     */
+    public EvictingTabHandler withMaximumAliveContents(int maximumAliveContents) {
+        this.setMaximumAliveContents(maximumAliveContents);
+        return this;
+    }
+
+    /**
+     * Returns the budget for the estimated size of alive contents.
+     * @return Size budget. {@link Long#MAX_VALUE} by default.
+     */
+    public long getSizeBudget() {
+        return this.sizeBudget;
+    }
+
+    /**
+     * Sets the budget for the estimated size of alive contents. Excess contents will be evicted next time a tab is added or selected.
+     * @param sizeBudget Size budget. Values less than {@code 0} are replaced with {@link Long#MAX_VALUE}, which means no budget.
+     * @see #setSizeEstimator(SerializableFunction)
+     */
+    public void setSizeBudget(long sizeBudget) {
+        this.sizeBudget = sizeBudget < 0 ? Long.MAX_VALUE : sizeBudget;
+    }
+
+    /**
+     * Chains {@link #setSizeBudget(long)} and returns itself.
+     * @param sizeBudget Size budget.
+     * @return This.
+     * @see #setSizeBudget(long)
+     */
+    public EvictingTabHandler withSizeBudget(long sizeBudget) {
+        this.setSizeBudget(sizeBudget);
+        return this;
+    }
+
+    /**
+     * Returns the function that estimates the size of tab contents.
+     * @return Size estimator. Never {@code null}.
+     */
+    public SerializableFunction<Component, Long> getSizeEstimator() {
+        return this.sizeEstimator;
+    }
+
+    /**
+     * Sets the function that estimates the size of tab contents. The size is estimated once, when contents are added.
+     * @param sizeEstimator Size estimator. If {@code null} is passed, {@link #DEFAULT_SIZE_ESTIMATOR} will be used.
+     */
+    public void setSizeEstimator(SerializableFunction<Component, Long> sizeEstimator) {
+        this.sizeEstimator = Optional.ofNullable(sizeEstimator).orElse(DEFAULT_SIZE_ESTIMATOR);
+    }
+
+    /**
+     * Chains {@link #setSizeEstimator(SerializableFunction)} and returns itself.
+     * @param sizeEstimator Size estimator.
+     * @return This.
+     * @see #setSizeEstimator(SerializableFunction)
+     */
+    public EvictingTabHandler withSizeEstimator(SerializableFunction<Component, Long> sizeEstimator) {
+        this.setSizeEstimator(sizeEstimator);
+        return this;
+    }
+
+    /**
+     * Sets the hooks used to preserve state of contents across eviction.
+     * The state is saved right before the contents are evicted and restored right after they are generated again.
+     * Only server-side state is available, so client-side state (like scroll position) must be synchronised to the server by the contents themselves.
+     * @param stateSaver Produces state of the contents. May return {@code null}, in which case nothing is saved. May be {@code null}.
+     * @param stateRestorer Restores the state into new contents. May be {@code null}.
+     */
+    public void setStateHooks(SerializableFunction<Component, Serializable> stateSaver, SerializableBiConsumer<Component, Serializable> stateRestorer) {
+        this.stateSaver = stateSaver;
+        this.stateRestorer = stateRestorer;
+    }
+
+    /**
+     * Chains {@link #setStateHooks(SerializableFunction, SerializableBiConsumer)} and returns itself.
+     * @param stateSaver Produces state of the contents.
+     * @param stateRestorer Restores the state into new contents.
+     * @return This.
+     * @see #setStateHooks(SerializableFunction, SerializableBiConsumer)
+     */
+    public EvictingTabHandler withStateHooks(SerializableFunction<Component, Serializable> stateSaver, SerializableBiConsumer<Component, Serializable> stateRestorer) {
+        this.setStateHooks(stateSaver, stateRestorer);
+        return this;
+    }
+
+    /**
+     * Returns the number of contents currently alive.
+     * @return Number of alive contents.
+     */
+    public int getAliveContentsCount() {
+        return this.aliveContents.size();
+    }
+
+    /**
+     * Returns the total estimated size of contents currently alive.
+     * @return Estimated size.
+     */
+    public long getAliveContentsSize() {
+        return this.totalSize;
+    }
+
+    /**
+     * Returns how many times contents were evicted.
+     * @return Number of evictions.
+     */
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "Evicting handler (" + this.delegate + ")";
+    }
+}
@@ -1,36 +1,59 @@
 package org.vaadin.miki.superfields.tabs;
 
 import com.vaadin.flow.component.AbstractField;
+import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.HasComponents;
 import com.vaadin.flow.component.HasSize;
 import com.vaadin.flow.component.HasStyle;
 import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.customfield.CustomField;
 import com.vaadin.flow.component.dependency.CssImport;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.tabs.Tab;
 import com.vaadin.flow.component.tabs.Tabs;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.shared.Registration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.vaadin.miki.markers.HasLabel;
 import org.vaadin.miki.markers.WithIdMixin;
 import org.vaadin.miki.markers.WithItemsMixin;
 import org.vaadin.miki.markers.WithValueMixin;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Configurable tab sheet component that also is a field.
+ * When serialized, values must be {@link Serializable}. Contents that are not attached and can be generated again are not serialized, but generated again when needed.
  *
  * @param <T> Type of value.
  * @author miki
@@ -43,6 +66,103 @@ public class SuperTabs<T>
         implements HasLabel, HasStyle, WithItemsMixin<T, SuperTabs<T>>, WithIdMixin<SuperTabs<T>>,
                    WithValueMixin<AbstractField.ComponentValueChangeEvent<CustomField<T>, T>, T, SuperTabs<T>> {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(SuperTabs.class);
+
+    /**
+     * Holds the contents of a tab. The contents may be generated only when needed for the first time.
+     * @param <V> Type of value the contents correspond to.
+     */
+    private static final class DeferredContents<V> implements Serializable {
+
+        private final V value;
+
+        private final TabContentGenerator<V> generator;
+
+        private transient Component component;
+
+        // when not null, the component is a placeholder
+        private transient CompletableFuture<Component> pending;
+
+        // placeholder that was serialized with the contents container, but has nothing to replace it after reading
+        private transient Component discardedPlaceholder;
+
+        // put in the cache when the component was detached; another component may have taken it since
+        private transient boolean lent;
+
+        /**
+         * Creates contents that will be generated when needed.
+         * @param value Value to generate contents for.
+         * @param generator Generator to use.
+         */
+        private DeferredContents(V value, TabContentGenerator<V> generator) {
+            this.value = value;
+            this.generator = generator;
+        }
+
+        /**
+         * Creates already generated contents.
+         * @param component Contents.
+         */
+        private DeferredContents(Component component) {
+            this(null, null);
+            this.component = component;
+        }
+
+        /**
+         * Checks whether or not the contents have been generated.
+         * @return {@code true} when there is a component.
+         */
+        private boolean isGenerated() {
+            return this.component != null;
+        }
+
+        /**
+         * Returns the contents, generating them if needed.
+         * @return A component.
+         */
+        private Component get() {
+            if(this.component == null)
+                this.component = this.generator.generateComponent(this.value);
+            return this.component;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            // contents that can be generated again are kept only when attached (they are serialized with their parent anyway)
+            // placeholders are never written as contents, only so that they can be removed from their parent after reading
+            out.writeObject(this.pending == null && (this.generator == null || (this.component != null && this.component.getParent().isPresent())) ? this.component : null);
+            out.writeObject(this.pending == null ? null : this.component);
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            this.component = (Component) in.readObject();
+            this.discardedPlaceholder = (Component) in.readObject();
+        }
+
+        /**
+         * Forgets the contents, so that they will be generated again when needed. Only possible when there is a generator.
+         * @return {@code true} when the contents were forgotten.
+         */
+        private boolean evict() {
+            if(this.generator == null)
+                return false;
+            this.cancel();
+            this.component = null;
+            return true;
+        }
+
+        /**
+         * Cancels asynchronous generation of the contents, if any.
+         */
+        private void cancel() {
+            if(this.pending != null) {
+                this.pending.cancel(true);
+                this.pending = null;
+            }
+        }
+    }
+
     /**
      * Default container for tab contents.
      */
@@ -53,13 +173,59 @@ public class SuperTabs<T>
      */
     public static final String MULTILINE_THEME_NAME = "multi-line-tabs";
 
+    /**
+     * Class name of placeholders produced by {@link #defaultPlaceholderGenerator(Object)}.
+     */
+    public static final String PLACEHOLDER_CONTENTS_CLASS_NAME = "supertabs-placeholder-contents";
+
+    /**
+     * Attribute with a key that is unique for each tab. Set only when {@link #isClientSideSwitching()}.
+     */
+    public static final String TAB_KEY_ATTRIBUTE = "supertabs-key";
+
+    /**
+     * Attribute with the key of the tab that the contents belong to. Set only when {@link #isClientSideSwitching()}.
+     */
+    public static final String CONTENTS_KEY_ATTRIBUTE = "supertabs-contents-key";
+
+    /**
+     * Attribute present on the tab headers when switching tabs happens in the browser.
+     */
+    private static final String CLIENT_SIDE_SWITCHING_ATTRIBUTE = "supertabs-client-switching";
+
+    /**
+     * Script that shows and hides contents already present in the browser as soon as a tab is selected.
+     * The server is notified about the selection as usual and sets the same state; contents that are not in the browser are left to the server.
+     */
+    private static final String CLIENT_SIDE_SWITCHING_SCRIPT =
+            "const tabs = $0, contents = $1;" +
+            "if (tabs.__superTabsClientSwitching) return;" +
+            "tabs.__superTabsClientSwitching = true;" +
+            "tabs.addEventListener('selected-changed', event => {" +
+            "  if (!tabs.hasAttribute('" + CLIENT_SIDE_SWITCHING_ATTRIBUTE + "')) return;" +
+            "  const tab = tabs.items ? tabs.items[event.detail.value] : null;" +
+            "  const key = tab ? tab.getAttribute('" + TAB_KEY_ATTRIBUTE + "') : null;" +
+            "  const children = Array.from(contents.children).filter(child => child.hasAttribute('" + CONTENTS_KEY_ATTRIBUTE + "'));" +
+            "  if (!key || !children.some(child => child.getAttribute('" + CONTENTS_KEY_ATTRIBUTE + "') === key)) return;" +
+            "  children.forEach(child => {" +
+            "    if (child.getAttribute('" + CONTENTS_KEY_ATTRIBUTE + "') === key) child.removeAttribute('hidden');" +
+            "    else child.setAttribute('hidden', '');" +
+            "  });" +
+            "});";
+
     private final Tabs tabs = new Tabs();
 
     private final HasComponents contents;
 
-    private final Map<Tab, Component> tabsToContents = new HashMap<>();
+    // values, tabs and contents are serialized in writeObject
+    private transient Map<Tab, DeferredContents<T>> tabsToContents = new HashMap<>();
+
+    private transient List<Map.Entry<T, Tab>> values = new ArrayList<>();
 
-    private final transient List<Map.Entry<T, Tab>> values = new ArrayList<>();
+    // indexes kept in sync with values, so that lookups do not need to scan the list
+    private transient Map<T, Map.Entry<T, Tab>> valuesToEntries = new HashMap<>();
+
+    private transient Map<Tab, Integer> tabsToIndexes = new HashMap<>();
 
     private TabHandler tabHandler;
 
@@ -71,6 +237,47 @@ public class SuperTabs<T>
 
     private boolean multiline = false;
 
+    private boolean lazyContentGeneration = false;
+
+    private boolean reconcilingTabs = false;
+
+    private transient Executor prefetchExecutor;
+
+    private TabPrefetchPolicy prefetchPolicy = TabPrefetchPolicy.ADJACENT_TABS;
+
+    // modified also by background threads when the UI is gone
+    private transient Set<Tab> prefetchingTabs = ConcurrentHashMap.newKeySet();
+
+    private boolean clientSideSwitching = false;
+
+    private int lastTabKey = 0;
+
+    private int headerWindowSize = 0;
+
+    private int headerWindowStart = 0;
+
+    private ComboBox<T> headerOverflow;
+
+    private final List<TabTimingListener<? super T>> timingListeners = new ArrayList<>();
+
+    private TabContentGenerator<T> placeholderGenerator = SuperTabs::defaultPlaceholderGenerator;
+
+    private TabContentCache contentCache;
+
+    private SerializableFunction<T, ?> contentCacheKeyProvider;
+
+    /**
+     * Default generator of placeholders shown while contents are generated by an {@link AsyncTabContentGenerator}.
+     * @param value Value to generate placeholder for.
+     * @param <V> Value type.
+     * @return A {@link Span} with {@link #PLACEHOLDER_CONTENTS_CLASS_NAME}.
+     */
+    public static <V> Component defaultPlaceholderGenerator(V value) {
+        final Span result = new Span();
+        result.addClassName(PLACEHOLDER_CONTENTS_CLASS_NAME);
+        return result;
+    }
+
     /**
      * Creates the component with no tabs and default {@link TabHandler}, {@link TabHeaderGenerator} and {@link TabContentGenerator}.
      */
@@ -166,14 +373,354 @@ public class SuperTabs<T>
     }
 
     private void onTabChanged(Tabs.SelectedChangeEvent event) {
-        // hide previous contents
-        if(event.getPreviousTab() != null && this.tabsToContents.containsKey(event.getPreviousTab()))
-            this.tabHandler.tabDeselected(event.getPreviousTab(), this.tabsToContents.get(event.getPreviousTab()), this.contents);
-        // show new contents
+        // hide previous contents, if they were ever shown
+        if(event.getPreviousTab() != null && this.tabsToContents.containsKey(event.getPreviousTab()) && this.tabsToContents.get(event.getPreviousTab()).isGenerated())
+            this.handleTab(TabLifecycleStage.TAB_DESELECTED, event.getPreviousTab(), this.tabsToContents.get(event.getPreviousTab()).get());
+        // show new contents, generating them if needed
         if(event.getSelectedTab() != null && this.tabsToContents.containsKey(event.getSelectedTab()))
-            this.tabHandler.tabSelected(event.getSelectedTab(), this.tabsToContents.get(event.getSelectedTab()), this.contents);
-        // trigger value change
+            this.handleTab(TabLifecycleStage.TAB_SELECTED, event.getSelectedTab(), this.getGeneratedContents(event.getSelectedTab()));
+        // trigger value change, unless tabs are being reconciled - then there is only one at the very end
+        if(!this.reconcilingTabs)
+            this.propagateValue();
+        if(event.getSelectedTab() != null)
+            this.prefetchContents(event.getSelectedTab());
+    }
+
+    /**
+     * Starts timing a stage, if anyone listens to timings.
+     * @return Current {@link System#nanoTime()}, or {@link Long#MIN_VALUE} when there are no listeners.
+     */
+    private long startTiming() {
+        return this.timingListeners.isEmpty() ? Long.MIN_VALUE : System.nanoTime();
+    }
+
+    /**
+     * Finishes timing a stage and notifies the listeners.
+     * @param value Value of the tab.
+     * @param stage Stage that finished.
+     * @param start Result of {@link #startTiming()}.
+     */
+    private void finishTiming(T value, TabLifecycleStage stage, long start) {
+        if(start != Long.MIN_VALUE && !this.timingListeners.isEmpty()) {
+            final long duration = System.nanoTime() - start;
+            for(TabTimingListener<? super T> listener: this.timingListeners)
+                listener.stageFinished(value, stage, duration);
+        }
+    }
+
+    /**
+     * Returns the value of given tab.
+     * @param tab Tab.
+     * @return Value of the tab, or {@code null} if the tab is not known.
+     */
+    private T getValueOf(Tab tab) {
+        final Integer position = this.tabsToIndexes.get(tab);
+        return position == null ? null : this.values.get(position).getKey();
+    }
+
+    /**
+     * Calls the {@link TabHandler} method corresponding to given stage, timing it.
+     * @param stage One of {@link TabLifecycleStage#TAB_ADDED}, {@link TabLifecycleStage#TAB_REMOVED}, {@link TabLifecycleStage#TAB_SELECTED} or {@link TabLifecycleStage#TAB_DESELECTED}.
+     * @param tab Tab.
+     * @param component Contents of the tab.
+     */
+    private void handleTab(TabLifecycleStage stage, Tab tab, Component component) {
+        final long start = this.startTiming();
+        switch (stage) {
+            case TAB_ADDED:
+                this.tabHandler.tabAdded(tab, component, this.contents);
+                break;
+            case TAB_REMOVED:
+                this.tabHandler.tabRemoved(tab, component, this.contents);
+                break;
+            case TAB_SELECTED:
+                this.tabHandler.tabSelected(tab, component, this.contents);
+                break;
+            default:
+                this.tabHandler.tabDeselected(tab, component, this.contents);
+        }
+        if(start != Long.MIN_VALUE)
+            this.finishTiming(this.getValueOf(tab), stage, start);
+    }
+
+    /**
+     * Generates contents, timing the generation.
+     * @param deferred Contents to generate.
+     * @return Generated contents.
+     */
+    private Component generateContents(DeferredContents<T> deferred) {
+        final long start = this.startTiming();
+        Component result = this.getCachedContents(deferred);
+        if(result == null)
+            result = deferred.get();
+        this.finishTiming(deferred.value, TabLifecycleStage.CONTENT_GENERATION, start);
+        return result;
+    }
+
+    /**
+     * Checks whether or not contents can be taken from {@link #getContentCache()}.
+     * @param deferred Contents to check.
+     * @return {@code true} when there is a cache and it has contents for the value.
+     */
+    private boolean isContentsCached(DeferredContents<T> deferred) {
+        return this.contentCache != null && deferred.generator != null && this.contentCache.contains(this.contentCacheKeyProvider.apply(deferred.value));
+    }
+
+    /**
+     * Takes contents from {@link #getContentCache()}, if possible.
+     * @param deferred Contents to look for; if found, they are no longer deferred.
+     * @return Cached contents, or {@code null} if there is nothing in the cache.
+     */
+    private Component getCachedContents(DeferredContents<T> deferred) {
+        if(this.contentCache == null || deferred.generator == null)
+            return null;
+        this.contentCache.take(this.contentCacheKeyProvider.apply(deferred.value)).ifPresent(component -> deferred.component = component);
+        return deferred.component;
+    }
+
+    /**
+     * Puts contents that are no longer used by this component into {@link #getContentCache()}, if there is one.
+     * Placeholders and contents that cannot be generated again are never cached.
+     * @param deferred Contents of a tab that is being removed or evicted, or of this component when it is detached.
+     * @return {@code true} when the contents were put in the cache.
+     */
+    private boolean returnContentsToCache(DeferredContents<T> deferred) {
+        // contents lent earlier may belong to another component by now
+        this.reclaimContents(deferred);
+        if(this.contentCache == null || deferred.generator == null || !deferred.isGenerated() || deferred.pending != null)
+            return false;
+        this.contentCache.put(this.contentCacheKeyProvider.apply(deferred.value), deferred.component);
+        return true;
+    }
+
+    /**
+     * Takes back contents lent to {@link #getContentCache()} when this component was detached.
+     * When another component has taken them in the meantime, they are forgotten and generated again when needed.
+     * @param deferred Contents of a tab.
+     */
+    private void reclaimContents(DeferredContents<T> deferred) {
+        if(!deferred.lent)
+            return;
+        deferred.lent = false;
+        final boolean reclaimed = this.contentCache != null && this.contentCache.reclaim(this.contentCacheKeyProvider.apply(deferred.value), deferred.component);
+        // contents dropped from the cache, but still in the container, were not taken by anyone
+        if(!reclaimed && !Objects.equals(deferred.component.getElement().getParent(), ((Component) this.contents).getElement()))
+            deferred.evict();
+    }
+
+    /**
+     * Generates contents of a tab. When the generator is an {@link AsyncTabContentGenerator} and this component is attached,
+     * a placeholder is returned and the contents replace it once ready.
+     * @param tab Tab to generate contents for.
+     * @param deferred Contents to generate.
+     * @return Generated contents or a placeholder.
+     */
+    @SuppressWarnings("unchecked")
+    private Component generateContents(Tab tab, DeferredContents<T> deferred) {
+        final UI ui = this.getUI().orElse(null);
+        if(ui == null || !(deferred.generator instanceof AsyncTabContentGenerator))
+            return this.generateContents(deferred);
+        final Component cached = this.getCachedContents(deferred);
+        if(cached != null)
+            return cached;
+        final long start = this.startTiming();
+        final CompletableFuture<Component> future = ((AsyncTabContentGenerator<T>) deferred.generator).generateComponentAsync(deferred.value);
+        deferred.component = this.placeholderGenerator.generateComponent(deferred.value);
+        deferred.pending = future;
+        future.whenComplete((component, throwable) -> {
+            try {
+                ui.access(() -> this.finishAsyncContents(tab, deferred, future, component, throwable, start));
+            }
+            catch(UIDetachedException detached) {
+                // nothing to show the contents in
+            }
+        });
+        return deferred.component;
+    }
+
+    /**
+     * Replaces a placeholder with contents generated asynchronously. Does nothing when the result is no longer needed.
+     * When generation failed, the failure is logged and the placeholder is removed; the contents are generated again next time the tab is selected.
+     * @param tab Tab the contents belong to.
+     * @param deferred Contents of the tab when the generation started.
+     * @param future Future that completed.
+     * @param component Generated contents; {@code null} when generation failed.
+     * @param throwable Reason of the failure; {@code null} when generation succeeded.
+     * @param start Result of {@link #startTiming()} when the generation started.
+     */
+    private void finishAsyncContents(Tab tab, DeferredContents<T> deferred, CompletableFuture<Component> future, Component component, Throwable throwable, long start) {
+        if(deferred.pending != future || this.tabsToContents.get(tab) != deferred)
+            return;
+        deferred.pending = null;
+        final Component placeholder = deferred.component;
+        final boolean selected = tab.isSelected();
+        if(selected)
+            this.handleTab(TabLifecycleStage.TAB_DESELECTED, tab, placeholder);
+        this.handleTab(TabLifecycleStage.TAB_REMOVED, tab, placeholder);
+        if(component == null) {
+            LOGGER.error("generating contents for {} failed, they will be generated again when the tab is selected", deferred.value, throwable);
+            // the placeholder must not be mistaken for the contents (for example, by the cache)
+            deferred.component = null;
+            return;
+        }
+        deferred.component = component;
+        this.finishTiming(deferred.value, TabLifecycleStage.CONTENT_GENERATION, start);
+        this.addContents(tab, component);
+        if(selected)
+            this.handleTab(TabLifecycleStage.TAB_SELECTED, tab, component);
+    }
+
+    /**
+     * Generates a header for a value, timing the generation.
+     * @param value Value.
+     * @return A new {@link Tab}.
+     */
+    private Tab generateHeader(T value) {
+        final long start = this.startTiming();
+        final Tab result = this.getTabHeaderGenerator().generateTab(value);
+        this.finishTiming(value, TabLifecycleStage.HEADER_GENERATION, start);
+        return result;
+    }
+
+    /**
+     * Updates the value (see {@link #updateValue()}), timing it.
+     */
+    private void propagateValue() {
+        final long start = this.startTiming();
         this.updateValue();
+        this.finishTiming(this.getValue(), TabLifecycleStage.VALUE_UPDATE, start);
+    }
+
+    /**
+     * Passes generated contents to the {@link TabHandler}, marking them for client-side switching if needed.
+     * @param tab Tab the contents belong to.
+     * @param component Contents.
+     */
+    private void addContents(Tab tab, Component component) {
+        if(this.isClientSideSwitchingActive())
+            this.markForClientSideSwitching(tab, component);
+        this.handleTab(TabLifecycleStage.TAB_ADDED, tab, component);
+    }
+
+    /**
+     * Sets the attributes that match contents with their tab in the browser.
+     * @param tab Tab.
+     * @param component Contents of the tab.
+     */
+    private void markForClientSideSwitching(Tab tab, Component component) {
+        if(!tab.getElement().hasAttribute(TAB_KEY_ATTRIBUTE))
+            tab.getElement().setAttribute(TAB_KEY_ATTRIBUTE, String.valueOf(++this.lastTabKey));
+        component.getElement().setAttribute(CONTENTS_KEY_ATTRIBUTE, tab.getElement().getAttribute(TAB_KEY_ATTRIBUTE));
+    }
+
+    /**
+     * Checks whether or not the browser actually switches tab contents. This requires {@link #isClientSideSwitching()}
+     * and contents being shown and hidden with {@link TabHandlers#HIDDEN_ATTRIBUTE_HANDLER} (possibly as a delegate of {@link EvictingTabHandler}),
+     * as otherwise the browser and the server could disagree on which contents are hidden.
+     * @return {@code true} when tab contents are switched in the browser.
+     */
+    public boolean isClientSideSwitchingActive() {
+        return this.clientSideSwitching && (
+                this.tabHandler == TabHandlers.HIDDEN_ATTRIBUTE_HANDLER
+                || (this.tabHandler instanceof EvictingTabHandler && ((EvictingTabHandler) this.tabHandler).getDelegate() == TabHandlers.HIDDEN_ATTRIBUTE_HANDLER)
+        );
+    }
+
+    /**
+     * Updates the attributes and the script needed for client-side switching.
+     */
+    private void updateClientSideSwitching() {
+        if(this.isClientSideSwitchingActive()) {
+            this.tabs.getElement().setAttribute(CLIENT_SIDE_SWITCHING_ATTRIBUTE, true);
+            this.tabsToContents.forEach((tab, deferred) -> {
+                if(deferred.isGenerated())
+                    this.markForClientSideSwitching(tab, deferred.get());
+            });
+            this.getUI().ifPresent(ui -> this.installClientSideSwitching());
+        }
+        else this.tabs.getElement().removeAttribute(CLIENT_SIDE_SWITCHING_ATTRIBUTE);
+    }
+
+    private void installClientSideSwitching() {
+        this.tabs.getElement().executeJs(CLIENT_SIDE_SWITCHING_SCRIPT, this.tabs.getElement(), ((Component) this.contents).getElement());
+    }
+
+    /**
+     * Starts prefetching contents of tabs chosen by {@link #getPrefetchPolicy()}, if prefetching is on.
+     * @param selectedTab Currently selected tab.
+     */
+    private void prefetchContents(Tab selectedTab) {
+        final UI ui = this.getUI().orElse(null);
+        final Integer selectedIndex = this.tabsToIndexes.get(selectedTab);
+        if(ui == null || this.prefetchExecutor == null || selectedIndex == null)
+            return;
+        for(int index = 0; index < this.values.size(); index++)
+            if(index != selectedIndex && this.prefetchPolicy.shouldPrefetch(selectedIndex, index)) {
+                final Tab tab = this.values.get(index).getValue();
+                final DeferredContents<T> deferred = this.tabsToContents.get(tab);
+                // asynchronous generators do not block anything and cached contents are cheap, so their generation just starts
+                if(!deferred.isGenerated() && (deferred.generator instanceof AsyncTabContentGenerator || this.isContentsCached(deferred)))
+                    this.getGeneratedContents(tab);
+                else if(!deferred.isGenerated() && deferred.generator != null && this.prefetchingTabs.add(tab))
+                    this.prefetchContents(ui, tab, deferred);
+            }
+    }
+
+    /**
+     * Prefetches contents of a tab. Data is prepared on {@link #getContentPrefetching()} (when the generator is a {@link TwoPhaseTabContentGenerator})
+     * and the contents are created and passed to the {@link TabHandler} through {@link UI#access(com.vaadin.flow.server.Command)}.
+     * @param ui UI to access.
+     * @param tab Tab to prefetch contents of.
+     * @param deferred Not yet generated contents.
+     */
+    @SuppressWarnings("unchecked")
+    private void prefetchContents(UI ui, Tab tab, DeferredContents<T> deferred) {
+        try {
+            if(deferred.generator instanceof TwoPhaseTabContentGenerator) {
+                final TwoPhaseTabContentGenerator<T, Object> generator = (TwoPhaseTabContentGenerator<T, Object>) deferred.generator;
+                CompletableFuture.supplyAsync(() -> generator.prepare(deferred.value), this.prefetchExecutor)
+                        .whenComplete((model, throwable) -> this.finishPrefetching(ui, tab, deferred, throwable == null ? () -> generator.render(model) : null));
+            }
+            else CompletableFuture.runAsync(() -> this.finishPrefetching(ui, tab, deferred, () -> deferred.generator.generateComponent(deferred.value)), this.prefetchExecutor);
+        }
+        catch(RejectedExecutionException rejected) {
+            // contents will be generated when needed
+            this.prefetchingTabs.remove(tab);
+        }
+    }
+
+    /**
+     * Finishes prefetching through {@link UI#access(com.vaadin.flow.server.Command)}.
+     * When the UI is already detached, the tab is only marked as no longer prefetched.
+     * @param ui UI to access.
+     * @param tab Tab that had its contents prefetched.
+     * @param deferred Contents of the tab when prefetching started.
+     * @param renderer Creates the contents; {@code null} when prefetching failed.
+     */
+    private void finishPrefetching(UI ui, Tab tab, DeferredContents<T> deferred, Supplier<Component> renderer) {
+        try {
+            ui.access(() -> this.finishPrefetching(tab, deferred, renderer));
+        }
+        catch(UIDetachedException detached) {
+            // contents will be generated when needed, should the component be used again
+            this.prefetchingTabs.remove(tab);
+        }
+    }
+
+    /**
+     * Finishes prefetching. Does nothing if the tab is gone or its contents were generated in the meantime.
+     * @param tab Tab that had its contents prefetched.
+     * @param deferred Contents of the tab when prefetching started.
+     * @param renderer Creates the contents; {@code null} when prefetching failed.
+     */
+    private void finishPrefetching(Tab tab, DeferredContents<T> deferred, Supplier<Component> renderer) {
+        this.prefetchingTabs.remove(tab);
+        if(renderer == null || this.tabsToContents.get(tab) != deferred || deferred.isGenerated())
+            return;
+        final long start = this.startTiming();
+        deferred.component = renderer.get();
+        this.finishTiming(deferred.value, TabLifecycleStage.CONTENT_GENERATION, start);
+        this.addContents(tab, deferred.component);
     }
 
     /**
@@ -182,9 +729,38 @@ public class SuperTabs<T>
      * @param select Whether or not to select newly added tab.
      */
     protected void addNewTab(T value, boolean select) {
-        Tab tab = this.getTabHeaderGenerator().generateTab(value);
-        Component content = this.getTabContentGenerator().generateComponent(value);
-        this.addNewTab(value, tab, content, select);
+        Tab tab = this.generateHeader(value);
+        this.addNewTab(value, tab, this.createContents(value), select);
+    }
+
+    /**
+     * Creates contents for a new tab, respecting {@link #isLazyContentGeneration()}.
+     * @param value Value to create contents for.
+     * @return Contents, either already generated or to be generated when needed.
+     */
+    private DeferredContents<T> createContents(T value) {
+        final DeferredContents<T> result = new DeferredContents<>(value, this.getTabContentGenerator());
+        // asynchronous generation needs the tab, so it starts once the tab is added
+        if(!this.isLazyContentGeneration() && !(result.generator instanceof AsyncTabContentGenerator))
+            this.generateContents(result);
+        return result;
+    }
+
+    /**
+     * Forgets the contents of given tab, so that they are generated again when needed. Contents of the selected tab are never forgotten.
+     * Used by {@link EvictingTabHandler}.
+     * @param tab Tab to forget the contents of.
+     * @return {@code true} when the contents were forgotten.
+     */
+    private boolean evictContents(Tab tab) {
+        final DeferredContents<T> deferred = this.tabsToContents.get(tab);
+        if(deferred == null)
+            return false;
+        this.reclaimContents(deferred);
+        if(!deferred.isGenerated() || tab.isSelected())
+            return false;
+        this.returnContentsToCache(deferred);
+        return deferred.evict();
     }
 
     /**
@@ -195,15 +771,40 @@ public class SuperTabs<T>
      * @param select Whether or not to select newly added tab.
      */
     protected void addNewTab(T value, Tab tab, Component content, boolean select) {
+        this.addNewTab(value, tab, new DeferredContents<>(content), select);
+    }
+
+    /**
+     * Adds a new tab and its (possibly not yet generated) contents for given value.
+     * {@link TabHandler#tabAdded(Tab, Component, HasComponents)} is called only when the contents are generated.
+     * @param value A new value, not yet present in the component.
+     * @param tab Tab corresponding to the value.
+     * @param content Contents corresponding to the value.
+     * @param select Whether or not to select newly added tab.
+     */
+    private void addNewTab(T value, Tab tab, DeferredContents<T> content, boolean select) {
         this.tabsToContents.put(tab, content);
-        this.values.add(new AbstractMap.SimpleImmutableEntry<>(value, tab));
-        this.tabs.add(tab);
-        this.tabHandler.tabAdded(tab, content, this.contents);
+        final Map.Entry<T, Tab> entry = new AbstractMap.SimpleImmutableEntry<>(value, tab);
+        this.tabsToIndexes.put(tab, this.values.size());
+        this.values.add(entry);
+        this.valuesToEntries.put(value, entry);
+        if(!this.isHeaderWindowed())
+            this.tabs.add(tab);
+        else {
+            // only headers in the window are in the strip
+            if(this.values.size() <= this.headerWindowStart + this.headerWindowSize)
+                this.tabs.getElement().appendChild(tab.getElement());
+            this.updateHeaderOverflow();
+        }
+        if(content.isGenerated())
+            this.addContents(tab, content.get());
+        else if(!this.isLazyContentGeneration())
+            this.getGeneratedContents(tab);
         if(select) {
             if (!Objects.equals(this.tabs.getSelectedTab(), tab))
-                this.tabs.setSelectedTab(tab);
+                this.selectExistingTab(tab);
             else
-                this.updateValue();
+                this.propagateValue();
         }
     }
 
@@ -226,7 +827,7 @@ public class SuperTabs<T>
     public void addTabs(Collection<T> values) {
         values.forEach(value ->
             this.getValueAndTab(value).ifPresentOrElse(
-                    e -> this.tabs.setSelectedTab(e.getValue()),
+                    e -> this.selectExistingTab(e.getValue()),
                     () -> this.addNewTab(value, this.values.isEmpty())
             ));
     }
@@ -241,7 +842,7 @@ public class SuperTabs<T>
      */
     public void addTab(T value, Tab tabHeader, Component tabContents) {
         this.getValueAndTab(value).ifPresentOrElse(
-                e -> this.tabs.setSelectedTab(e.getValue()),
+                e -> this.selectExistingTab(e.getValue()),
                 () -> this.addNewTab(value, tabHeader, tabContents, this.values.isEmpty())
         );
     }
@@ -254,10 +855,149 @@ public class SuperTabs<T>
     protected void removeExistingTab(T value, Tab header) {
         if(Objects.equals(header, this.tabs.getSelectedTab()))
             this.tabs.setSelectedTab(null);
-        this.tabs.remove(header);
-        Component component = this.tabsToContents.get(header);
-        this.tabHandler.tabRemoved(header, component, this.contents);
-        this.values.removeIf(e -> Objects.equals(value, e.getKey()));
+        // headers outside of the window are not in the strip
+        if(header.getParent().isPresent())
+            this.tabs.remove(header);
+        DeferredContents<T> component = this.tabsToContents.remove(header);
+        if(component != null) {
+            // checked before cancelling, as a placeholder must not end up in the cache
+            this.returnContentsToCache(component);
+            component.cancel();
+        }
+        // contents that were never generated were never added
+        if(component != null && component.isGenerated())
+            this.handleTab(TabLifecycleStage.TAB_REMOVED, header, component.get());
+        final Integer index = this.tabsToIndexes.remove(header);
+        if(index != null) {
+            this.values.remove(index.intValue());
+            this.valuesToEntries.remove(value);
+            // only tabs after the removed one change their positions
+            for(int position = index; position < this.values.size(); position++)
+                this.tabsToIndexes.put(this.values.get(position).getValue(), position);
+        }
+        if(this.isHeaderWindowed())
+            this.refreshHeaderWindow();
+    }
+
+    /**
+     * Selects a tab that is known to be present in this component, without looking up its position in the tab strip.
+     * When the header is outside of the header window, the window is moved first.
+     * @param tab Tab to select. Must not be {@code null}.
+     */
+    private void selectExistingTab(Tab tab) {
+        final int position = this.tabsToIndexes.get(tab);
+        if(this.isHeaderWindowed() && (position < this.headerWindowStart || position >= this.headerWindowStart + this.headerWindowSize || !tab.getParent().isPresent())) {
+            // the strip index of the new selection may be the same as of the old one, so going through no selection guarantees proper events
+            final boolean wasReconciling = this.reconcilingTabs;
+            this.reconcilingTabs = true;
+            try {
+                this.tabs.setSelectedIndex(-1);
+                this.layOutHeaders(position - this.headerWindowSize / 2);
+                this.tabs.setSelectedIndex(position - this.headerWindowStart);
+            }
+            finally {
+                this.reconcilingTabs = wasReconciling;
+            }
+            if(!wasReconciling)
+                this.propagateValue();
+        }
+        else this.tabs.setSelectedIndex(position - this.headerWindowStart);
+    }
+
+    /**
+     * Puts the headers that fit in the header window (or all headers, when the window is off) in the tab strip.
+     * Does not change the selection, so callers must select a proper tab afterwards.
+     * @param start Position of the first header to show; corrected if it does not fit.
+     */
+    private void layOutHeaders(int start) {
+        final int size = this.isHeaderWindowed() ? this.headerWindowSize : this.values.size();
+        this.headerWindowStart = Math.max(0, Math.min(start, this.values.size() - size));
+        final int end = Math.min(this.values.size(), this.headerWindowStart + size);
+        final Element strip = this.tabs.getElement();
+        boolean unchanged = strip.getChildCount() == end - this.headerWindowStart;
+        for(int position = this.headerWindowStart; unchanged && position < end; position++)
+            unchanged = strip.getChild(position - this.headerWindowStart).equals(this.values.get(position).getValue().getElement());
+        if(!unchanged) {
+            strip.removeAllChildren();
+            for(int position = this.headerWindowStart; position < end; position++)
+                strip.appendChild(this.values.get(position).getValue().getElement());
+        }
+        this.updateHeaderOverflow();
+    }
+
+    /**
+     * Lays out headers again (for example, after removing a tab) and keeps the selected tab selected.
+     */
+    private void refreshHeaderWindow() {
+        final Tab selected = this.tabs.getSelectedTab();
+        this.layOutHeaders(this.headerWindowStart);
+        if(selected != null)
+            this.selectExistingTab(selected);
+    }
+
+    /**
+     * Shows the overflow search box when there are more headers than fit in the window.
+     */
+    private void updateHeaderOverflow() {
+        if(this.headerOverflow != null) {
+            this.headerOverflow.setVisible(this.isHeaderWindowed() && this.values.size() > this.headerWindowSize);
+            if(this.headerOverflow.isVisible())
+                this.headerOverflow.getDataProvider().refreshAll();
+        }
+    }
+
+    /**
+     * Returns the text used to find a value in the overflow search box.
+     * @param value Value.
+     * @return Label of the tab header, if it has any, otherwise the value converted to a {@link String}.
+     */
+    private String getHeaderLabel(T value) {
+        return Optional.ofNullable(this.valuesToEntries.get(value))
+                .map(entry -> entry.getValue().getLabel())
+                .filter(label -> !label.isEmpty())
+                .orElseGet(() -> String.valueOf(value));
+    }
+
+    /**
+     * Finds values whose header label contains given text, ignoring case.
+     * @param filter Text to look for.
+     * @return A stream of values, in the order of tabs.
+     */
+    private Stream<T> findHeaders(String filter) {
+        final String lowerCaseFilter = filter.toLowerCase();
+        return this.values.stream().map(Map.Entry::getKey).filter(value -> this.getHeaderLabel(value).toLowerCase().contains(lowerCaseFilter));
+    }
+
+    private ComboBox<T> createHeaderOverflow() {
+        final ComboBox<T> overflow = new ComboBox<>();
+        overflow.getElement().getClassList().add("part-of-supertabs");
+        overflow.setItemLabelGenerator(this::getHeaderLabel);
+        overflow.setDataProvider(DataProvider.fromFilteringCallbacks(
+                query -> this.findHeaders(query.getFilter().orElse("")).skip(query.getOffset()).limit(query.getLimit()),
+                query -> (int) this.findHeaders(query.getFilter().orElse("")).count()
+        ));
+        overflow.addValueChangeListener(event -> {
+            if(event.getValue() != null) {
+                this.getValueAndTab(event.getValue()).ifPresent(entry -> this.selectExistingTab(entry.getValue()));
+                overflow.clear();
+            }
+        });
+        // right after the tab strip
+        this.getElement().insertChild(this.getElement().indexOfChild(this.tabs.getElement()) + 1, overflow.getElement());
+        return overflow;
+    }
+
+    /**
+     * Returns the contents of given tab. If they are not generated yet, they are generated and passed to {@link TabHandler#tabAdded(Tab, Component, HasComponents)}.
+     * @param tab Tab to get the contents of. Must be present in this component.
+     * @return Contents of the tab.
+     */
+    private Component getGeneratedContents(Tab tab) {
+        final DeferredContents<T> deferred = this.tabsToContents.get(tab);
+        this.reclaimContents(deferred);
+        if(!deferred.isGenerated())
+            this.addContents(tab, this.generateContents(tab, deferred));
+        return deferred.get();
     }
 
     /**
@@ -275,7 +1015,7 @@ public class SuperTabs<T>
      * @return Value and its matching {@link Tab}, if any.
      */
     protected Optional<Map.Entry<T, Tab>> getValueAndTab(T value) {
-        return this.values.stream().filter(e -> Objects.equals(value, e.getKey())).findFirst();
+        return Optional.ofNullable(this.valuesToEntries.get(value));
     }
 
     /**
@@ -289,29 +1029,51 @@ public class SuperTabs<T>
 
     /**
      * Returns contents that corresponds to the given value.
+     * When {@link #isLazyContentGeneration()} and the contents have not been generated yet, they are generated by this method.
      * Note: {@link Component#setVisible(boolean)} calls on the result are discouraged ;)
      * @param value Value to look for.
      * @return A {@link Component} that corresponds to the value, if any.
      */
     public Optional<Component> getTabContents(T value) {
-        return this.getValueAndTab(value).map(e -> this.tabsToContents.get(e.getValue()));
+        return this.getValueAndTab(value).map(e -> this.getGeneratedContents(e.getValue()));
+    }
+
+    /**
+     * Checks whether or not the contents for the given value are being generated by an {@link AsyncTabContentGenerator}.
+     * In such case {@link #getTabContents(Object)} returns a placeholder.
+     * @param value Value to look for.
+     * @return {@code true} when there is a tab for the value and its contents are not ready yet.
+     */
+    public boolean isTabContentsLoading(T value) {
+        return this.getValueAndTab(value).map(e -> this.tabsToContents.get(e.getValue()).pending != null).orElse(false);
+    }
+
+    /**
+     * Checks whether or not the contents for the given value have already been generated.
+     * @param value Value to look for.
+     * @return {@code true} when there is a tab for the value and its contents exist.
+     * @see #setLazyContentGeneration(boolean)
+     */
+    public boolean isTabContentsGenerated(T value) {
+        return this.getValueAndTab(value).map(e -> this.tabsToContents.get(e.getValue()).isGenerated()).orElse(false);
     }
 
     @Override
     protected T generateModelValue() {
-        if(this.tabs.getSelectedIndex() < this.values.size() && this.tabs.getSelectedIndex() >= 0)
-            return this.values.get(this.tabs.getSelectedIndex()).getKey();
+        final int position = this.tabs.getSelectedIndex() + this.headerWindowStart;
+        if(this.tabs.getSelectedIndex() >= 0 && position < this.values.size())
+            return this.values.get(position).getKey();
         else return this.getEmptyValue();
     }
 
     @Override
     protected void setPresentationValue(T t) {
-        this.values.stream().filter(e -> Objects.equals(t, e.getKey())).findFirst().ifPresentOrElse(
-                e -> this.tabs.setSelectedTab(e.getValue()),
+        this.getValueAndTab(t).ifPresentOrElse(
+                e -> this.selectExistingTab(e.getValue()),
                 () -> {
                     if(this.isCustomValueAllowed())
                         addNewTab(t, true);
-                    else this.updateValue();
+                    else this.propagateValue();
                 }
         );
     }
@@ -430,23 +1192,29 @@ public class SuperTabs<T>
         // do this only if the handlers are different
         if(!Objects.equals(this.tabHandler, tabHandler)) {
 
-            // remove all tabs using current tab handler
-            this.values.stream().map(Map.Entry::getValue).forEach(tab -> {
+            // remove all tabs using current tab handler; contents that were not generated were never added
+            this.values.stream().map(Map.Entry::getValue).filter(tab -> this.tabsToContents.get(tab).isGenerated()).forEach(tab -> {
                 // perform cleanup if needed: deselect the tab first
                 if(tab.isSelected())
-                    this.tabHandler.tabDeselected(tab, this.tabsToContents.get(tab), this.contents);
-                this.tabHandler.tabRemoved(tab, this.tabsToContents.get(tab), this.contents);
+                    this.handleTab(TabLifecycleStage.TAB_DESELECTED, tab, this.tabsToContents.get(tab).get());
+                this.handleTab(TabLifecycleStage.TAB_REMOVED, tab, this.tabsToContents.get(tab).get());
             });
 
+            if(this.tabHandler instanceof EvictingTabHandler)
+                ((EvictingTabHandler) this.tabHandler).setEvictionCallback(null);
+
             // add tabs using new tab handler
             this.tabHandler = tabHandler;
-            this.values.stream().map(Map.Entry::getValue).forEach(tabHeader -> {
-                Component tabContents = this.tabsToContents.get(tabHeader);
-                this.tabHandler.tabAdded(tabHeader, tabContents, this.contents);
+            if(this.tabHandler instanceof EvictingTabHandler)
+                ((EvictingTabHandler) this.tabHandler).setEvictionCallback(this::evictContents);
+            this.updateClientSideSwitching();
+            this.values.stream().map(Map.Entry::getValue).filter(tab -> this.tabsToContents.get(tab).isGenerated()).forEach(tabHeader -> {
+                Component tabContents = this.tabsToContents.get(tabHeader).get();
+                this.addContents(tabHeader, tabContents);
                 // select or deselect tabs
                 if(tabHeader.isSelected())
-                    this.tabHandler.tabSelected(tabHeader, tabContents, this.contents);
-                else this.tabHandler.tabDeselected(tabHeader, tabContents, this.contents);
+                    this.handleTab(TabLifecycleStage.TAB_SELECTED, tabHeader, tabContents);
+                else this.handleTab(TabLifecycleStage.TAB_DESELECTED, tabHeader, tabContents);
             });
         }
     }
@@ -500,9 +1268,413 @@ public class SuperTabs<T>
         return this;
     }
 
+    /**
+     * Checks whether or not tab contents are generated only when needed.
+     * @return {@code true} when contents are generated on first selection of the tab (or first call to {@link #getTabContents(Object)}); {@code false} otherwise (and by default).
+     */
+    public boolean isLazyContentGeneration() {
+        return this.lazyContentGeneration;
+    }
+
+    /**
+     * Sets whether or not tab contents should be generated only when needed.
+     * When on, {@link #getTabContentGenerator()} is called for a tab when it is selected (or its contents are requested with {@link #getTabContents(Object)}) for the first time,
+     * and only then the contents are passed to {@link TabHandler#tabAdded(Tab, Component, HasComponents)}. This only affects tabs added afterwards.
+     * @param lazyContentGeneration When {@code true}, contents will be generated when needed; {@code false} to generate them as soon as a tab is added.
+     */
+    public void setLazyContentGeneration(boolean lazyContentGeneration) {
+        this.lazyContentGeneration = lazyContentGeneration;
+    }
+
+    /**
+     * Chains {@link #setLazyContentGeneration(boolean)} and returns itself.
+     * @param lazyContentGeneration Whether or not to generate contents when needed.
+     * @return This.
+     * @see #setLazyContentGeneration(boolean)
+     */
+    public SuperTabs<T> withLazyContentGeneration(boolean lazyContentGeneration) {
+        this.setLazyContentGeneration(lazyContentGeneration);
+        return this;
+    }
+
+    /**
+     * Returns the executor used to prefetch tab contents.
+     * @return An {@link Executor}, if prefetching is on.
+     */
+    public Optional<Executor> getContentPrefetching() {
+        return Optional.ofNullable(this.prefetchExecutor);
+    }
+
+    /**
+     * Checks whether or not tab contents are prefetched.
+     * @return {@code true} when there is an executor for prefetching.
+     */
+    public boolean isContentPrefetching() {
+        return this.prefetchExecutor != null;
+    }
+
+    /**
+     * Turns on or off prefetching of tab contents. When on, each time a tab is selected, the contents of tabs chosen by {@link #getPrefetchPolicy()} are prepared in the background, if they were not generated yet.
+     * For a {@link TwoPhaseTabContentGenerator}, {@link TwoPhaseTabContentGenerator#prepare(Object)} runs on the executor and the rest happens through {@link UI#access(com.vaadin.flow.server.Command)};
+     * other generators run entirely through {@link UI#access(com.vaadin.flow.server.Command)}, after the response to the tab selection has been sent.
+     * This only makes sense with {@link #setLazyContentGeneration(boolean)} or an {@link EvictingTabHandler}, as otherwise all contents are generated anyway.
+     * The component must be attached to a {@link UI} for prefetching to happen; server push is recommended for the contents to reach the browser right away.
+     * The executor is not serialized, so prefetching is off after deserialization (a warning is logged) and must be turned on again.
+     * @param executor Executor to use. If {@code null} is passed, prefetching is turned off.
+     */
+    public void setContentPrefetching(Executor executor) {
+        this.prefetchExecutor = executor;
+    }
+
+    /**
+     * Chains {@link #setContentPrefetching(Executor)} and returns itself.
+     * @param executor Executor to use.
+     * @return This.
+     * @see #setContentPrefetching(Executor)
+     */
+    public SuperTabs<T> withContentPrefetching(Executor executor) {
+        this.setContentPrefetching(executor);
+        return this;
+    }
+
+    /**
+     * Returns the policy deciding which tabs should have their contents prefetched.
+     * @return A {@link TabPrefetchPolicy}. Never {@code null}.
+     */
+    public TabPrefetchPolicy getPrefetchPolicy() {
+        return this.prefetchPolicy;
+    }
+
+    /**
+     * Sets the policy deciding which tabs should have their contents prefetched.
+     * @param prefetchPolicy A {@link TabPrefetchPolicy}. If {@code null} is passed, {@link TabPrefetchPolicy#ADJACENT_TABS} will be used.
+     */
+    public void setPrefetchPolicy(TabPrefetchPolicy prefetchPolicy) {
+        this.prefetchPolicy = Optional.ofNullable(prefetchPolicy).orElse(TabPrefetchPolicy.ADJACENT_TABS);
+    }
+
+    /**
+     * Chains {@link #setPrefetchPolicy(TabPrefetchPolicy)} and returns itself.
+     * @param prefetchPolicy A {@link TabPrefetchPolicy}.
+     * @return This.
+     * @see #setPrefetchPolicy(TabPrefetchPolicy)
+     */
+    public SuperTabs<T> withPrefetchPolicy(TabPrefetchPolicy prefetchPolicy) {
+        this.setPrefetchPolicy(prefetchPolicy);
+        return this;
+    }
+
+    /**
+     * Checks whether or not switching between tabs with contents already in the browser should happen in the browser.
+     * @return {@code true} when the mode is on. It is only active with {@link TabHandlers#HIDDEN_ATTRIBUTE_HANDLER}.
+     * @see #isClientSideSwitchingActive()
+     */
+    public boolean isClientSideSwitching() {
+        return this.clientSideSwitching;
+    }
+
+    /**
+     * Sets whether or not switching between tabs with contents already in the browser should happen in the browser.
+     * When active, selecting a tab shows its contents and hides the others immediately; the server is notified as usual,
+     * runs the {@link TabHandler} and fires value change events, but the user does not wait for that.
+     * Tabs whose contents are not in the browser (for example, not generated yet) are handled by the server.
+     * This is only active when {@link TabHandlers#HIDDEN_ATTRIBUTE_HANDLER} is used, either directly or as a delegate of {@link EvictingTabHandler}.
+     * @param clientSideSwitching When {@code true}, tab contents will be switched in the browser.
+     */
+    public void setClientSideSwitching(boolean clientSideSwitching) {
+        this.clientSideSwitching = clientSideSwitching;
+        this.updateClientSideSwitching();
+    }
+
+    /**
+     * Chains {@link #setClientSideSwitching(boolean)} and returns itself.
+     * @param clientSideSwitching Whether or not to switch tab contents in the browser.
+     * @return This.
+     * @see #setClientSideSwitching(boolean)
+     */
+    public SuperTabs<T> withClientSideSwitching(boolean clientSideSwitching) {
+        this.setClientSideSwitching(clientSideSwitching);
+        return this;
+    }
+
+    /**
+     * Checks whether or not only some tab headers are shown.
+     * @return {@code true} when {@link #getHeaderWindowSize()} is positive.
+     */
+    public boolean isHeaderWindowed() {
+        return this.headerWindowSize > 0;
+    }
+
+    /**
+     * Returns the maximum number of tab headers shown at once.
+     * @return Size of the header window; {@code 0} means all headers are shown (the default).
+     */
+    public int getHeaderWindowSize() {
+        return this.headerWindowSize;
+    }
+
+    /**
+     * Sets the maximum number of tab headers shown at once. Meant for components with a very large number of tabs.
+     * Only the headers in the window are in the tab strip (and thus in the browser); the window follows the selected tab.
+     * All tabs can be found through a search box shown next to the strip, which lazily lists the tabs matching the typed text.
+     * Headers outside of the window still exist on the server, so selecting by value and {@link #getTabHeader(Object)} work as usual.
+     * @param headerWindowSize Size of the header window. Values less than {@code 1} turn the window off and show all headers.
+     */
+    public void setHeaderWindowSize(int headerWindowSize) {
+        headerWindowSize = Math.max(0, headerWindowSize);
+        if(headerWindowSize == this.headerWindowSize)
+            return;
+        final Tab selected = this.tabs.getSelectedTab();
+        this.headerWindowSize = headerWindowSize;
+        if(this.isHeaderWindowed() && this.headerOverflow == null)
+            this.headerOverflow = this.createHeaderOverflow();
+        this.layOutHeaders(selected == null ? this.headerWindowStart : this.tabsToIndexes.get(selected) - this.headerWindowSize / 2);
+        if(selected != null)
+            this.selectExistingTab(selected);
+    }
+
+    /**
+     * Chains {@link #setHeaderWindowSize(int)} and returns itself.
+     * @param headerWindowSize Size of the header window.
+     * @return This.
+     * @see #setHeaderWindowSize(int)
+     */
+    public SuperTabs<T> withHeaderWindowSize(int headerWindowSize) {
+        this.setHeaderWindowSize(headerWindowSize);
+        return this;
+    }
+
+    /**
+     * Writes values, their tabs and contents in order, without the lookup indexes (which are rebuilt when reading).
+     * Contents that are not attached and can be generated again are not written; they are generated again when needed.
+     * Placeholders of contents still being generated asynchronously are removed from the contents container once the whole object graph is read,
+     * and such contents are generated again when needed.
+     * @param out Stream to write to.
+     * @throws IOException When writing fails, for example when the values are not {@link Serializable}.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeBoolean(this.prefetchExecutor != null);
+        out.writeInt(this.values.size());
+        for(Map.Entry<T, Tab> entry: this.values) {
+            out.writeObject(entry.getKey());
+            out.writeObject(entry.getValue());
+            out.writeObject(this.tabsToContents.get(entry.getValue()));
+        }
+    }
+
+    /**
+     * Reads what {@link #writeObject(ObjectOutputStream)} has written and rebuilds the lookup indexes.
+     * @param in Stream to read from.
+     * @throws IOException When reading fails.
+     * @throws ClassNotFoundException When a class of a value is not found.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.tabsToContents = new HashMap<>();
+        this.values = new ArrayList<>();
+        this.valuesToEntries = new HashMap<>();
+        this.tabsToIndexes = new HashMap<>();
+        this.prefetchingTabs = ConcurrentHashMap.newKeySet();
+        if(in.readBoolean())
+            LOGGER.warn("content prefetching is off after deserialization, as its executor is not serializable; call setContentPrefetching to turn it on again");
+        final int size = in.readInt();
+        for(int position = 0; position < size; position++) {
+            final Map.Entry<T, Tab> entry = new AbstractMap.SimpleImmutableEntry<>((T) in.readObject(), (Tab) in.readObject());
+            this.tabsToContents.put(entry.getValue(), (DeferredContents<T>) in.readObject());
+            this.tabsToIndexes.put(entry.getValue(), position);
+            this.values.add(entry);
+            this.valuesToEntries.put(entry.getKey(), entry);
+        }
+        // the contents container may not be fully read yet
+        in.registerValidation(this::discardPlaceholders, 0);
+    }
+
+    /**
+     * Removes placeholders of contents that were being generated when this component was serialized.
+     * Contents of the selected tab are generated again when this component is attached.
+     */
+    private void discardPlaceholders() {
+        this.tabsToContents.values().stream()
+                .filter(deferred -> deferred.discardedPlaceholder != null)
+                .forEach(deferred -> {
+                    deferred.discardedPlaceholder.getElement().removeFromParent();
+                    deferred.discardedPlaceholder = null;
+                });
+    }
+
+    /**
+     * Returns the generator of placeholders shown while an {@link AsyncTabContentGenerator} is working.
+     * @return A {@link TabContentGenerator}. Never {@code null}.
+     */
+    public TabContentGenerator<T> getPlaceholderGenerator() {
+        return this.placeholderGenerator;
+    }
+
+    /**
+     * Sets the generator of placeholders shown while an {@link AsyncTabContentGenerator} is working.
+     * Placeholders are passed to the {@link TabHandler} like regular contents and removed through it once the actual contents are ready.
+     * @param placeholderGenerator A {@link TabContentGenerator}. If {@code null} is passed, {@link #defaultPlaceholderGenerator(Object)} will be used.
+     */
+    public void setPlaceholderGenerator(TabContentGenerator<T> placeholderGenerator) {
+        this.placeholderGenerator = Optional.ofNullable(placeholderGenerator).orElse(SuperTabs::defaultPlaceholderGenerator);
+    }
+
+    /**
+     * Chains {@link #setPlaceholderGenerator(TabContentGenerator)} and returns itself.
+     * @param placeholderGenerator A {@link TabContentGenerator}.
+     * @return This.
+     * @see #setPlaceholderGenerator(TabContentGenerator)
+     */
+    public SuperTabs<T> withPlaceholderGenerator(TabContentGenerator<T> placeholderGenerator) {
+        this.setPlaceholderGenerator(placeholderGenerator);
+        return this;
+    }
+
+    /**
+     * Returns the cache consulted before generating tab contents.
+     * @return A {@link TabContentCache}, if any.
+     */
+    public Optional<TabContentCache> getContentCache() {
+        return Optional.ofNullable(this.contentCache);
+    }
+
+    /**
+     * Sets the cache consulted before generating tab contents. Contents found in the cache are taken out of it, and contents are put (back) in the cache
+     * only when their tab is removed or the contents are evicted, so that the same component is never used in two places at once.
+     * When this component is detached, all its contents are lent to the cache, so that a new instance (for example, after navigating away and back) can use them;
+     * contents still in the cache are taken back when this component is attached again, the others are generated again when needed.
+     * Contents are identified in the cache by keys derived from the values. When the cache is shared (for example, {@link TabContentCache#forCurrentUI()}),
+     * the keys should also identify what generates the contents, as all users of the cache share the keys.
+     * Contents given explicitly in {@link #addTab(Object, Tab, Component)} are never cached.
+     * @param contentCache Cache to use. If {@code null} is passed, caching is turned off.
+     * @param keyProvider Produces keys from values. If {@code null} is passed, values themselves are used as keys.
+     */
+    public void setContentCache(TabContentCache contentCache, SerializableFunction<T, ?> keyProvider) {
+        this.contentCache = contentCache;
+        this.contentCacheKeyProvider = Optional.<SerializableFunction<T, ?>>ofNullable(keyProvider).orElse(value -> value);
+    }
+
+    /**
+     * Chains {@link #setContentCache(TabContentCache, SerializableFunction)} and returns itself.
+     * @param contentCache Cache to use.
+     * @param keyProvider Produces keys from values.
+     * @return This.
+     * @see #setContentCache(TabContentCache, SerializableFunction)
+     */
+    public SuperTabs<T> withContentCache(TabContentCache contentCache, SerializableFunction<T, ?> keyProvider) {
+        this.setContentCache(contentCache, keyProvider);
+        return this;
+    }
+
+    /**
+     * Adds a listener that is informed how long each stage in the life of each tab took.
+     * When there are no listeners, nothing is timed.
+     * @param listener Listener. {@link TabTimingStatistics} is a ready-to-use one.
+     * @return A {@link Registration} that removes the listener.
+     */
+    public Registration addTimingListener(TabTimingListener<? super T> listener) {
+        this.timingListeners.add(listener);
+        return () -> this.timingListeners.remove(listener);
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+        this.tabsToContents.values().forEach(this::reclaimContents);
+        // contents of the selected tab are missing when their generation was in progress during serialization or were taken from the cache by another component
+        final Tab selected = this.tabs.getSelectedTab();
+        if(selected != null && this.tabsToContents.containsKey(selected) && !this.tabsToContents.get(selected).isGenerated())
+            this.handleTab(TabLifecycleStage.TAB_SELECTED, selected, this.getGeneratedContents(selected));
+        if(this.isClientSideSwitchingActive())
+            this.installClientSideSwitching();
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        // a component that is detached is often thrown away (for example, when navigating to another view), so its contents can be used by another one
+        this.tabsToContents.values().forEach(deferred -> deferred.lent = this.returnContentsToCache(deferred));
+        super.onDetach(detachEvent);
+    }
+
+    /**
+     * Reconciles the tabs with given values: tabs for values that are already present keep their headers and contents,
+     * tabs for values not in the collection are removed, and tabs for new values are added. Tabs follow the order of the collection.
+     * All {@link TabHandler} notifications happen in one batch (deselection, removals, additions, selection),
+     * and at most one value change event is fired at the very end.
+     * If the selected tab is still present, it remains selected; otherwise the first tab is selected.
+     * @param collection Values to have tabs for. Duplicates are ignored.
+     */
     @Override
     public void setItems(Collection<T> collection) {
-        this.addTabs(collection);
+        final Set<T> wanted = new LinkedHashSet<>(collection);
+        final Tab previouslySelected = this.tabs.getSelectedTab();
+        this.reconcilingTabs = true;
+        try {
+            // deselect the current tab only when it is going away
+            if(previouslySelected != null && !wanted.contains(this.values.get(this.tabsToIndexes.get(previouslySelected)).getKey()))
+                this.tabs.setSelectedTab(null);
+
+            // remove tabs that are no longer needed
+            for(Map.Entry<T, Tab> entry: this.values)
+                if(!wanted.contains(entry.getKey())) {
+                    if(entry.getValue().getParent().isPresent())
+                        this.tabs.remove(entry.getValue());
+                    final DeferredContents<T> component = this.tabsToContents.remove(entry.getValue());
+                    // as in removeExistingTab, checked before cancelling
+                    this.returnContentsToCache(component);
+                    component.cancel();
+                    if(component.isGenerated())
+                        this.handleTab(TabLifecycleStage.TAB_REMOVED, entry.getValue(), component.get());
+                }
+
+            // build the new list, reusing existing entries and putting headers in the right order
+            final List<Map.Entry<T, Tab>> reconciled = new ArrayList<>(wanted.size());
+            final List<Tab> added = new ArrayList<>();
+            for(T value: wanted) {
+                Map.Entry<T, Tab> entry = this.valuesToEntries.get(value);
+                if(entry == null) {
+                    entry = new AbstractMap.SimpleImmutableEntry<>(value, this.generateHeader(value));
+                    this.tabsToContents.put(entry.getValue(), this.createContents(value));
+                    added.add(entry.getValue());
+                }
+                final int position = reconciled.size();
+                // with the header window, the strip is laid out once all values are known
+                if(!this.isHeaderWindowed() && (this.tabs.getElement().getChildCount() <= position || !Objects.equals(this.tabs.getElement().getChild(position), entry.getValue().getElement())))
+                    this.tabs.getElement().insertChild(position, entry.getValue().getElement());
+                reconciled.add(entry);
+            }
+
+            this.values.clear();
+            this.valuesToEntries.clear();
+            this.tabsToIndexes.clear();
+            for(Map.Entry<T, Tab> entry: reconciled) {
+                this.tabsToIndexes.put(entry.getValue(), this.values.size());
+                this.values.add(entry);
+                this.valuesToEntries.put(entry.getKey(), entry);
+            }
+            if(this.isHeaderWindowed())
+                this.layOutHeaders(this.headerWindowStart);
+
+            // notify about new tabs (only those with contents, the others will be added when needed)
+            for(Tab tab: added)
+                if(this.tabsToContents.get(tab).isGenerated())
+                    this.addContents(tab, this.tabsToContents.get(tab).get());
+                else if(!this.isLazyContentGeneration())
+                    this.getGeneratedContents(tab);
+
+            // positions may have changed, so selection must be restored
+            if(previouslySelected != null && this.tabsToIndexes.containsKey(previouslySelected))
+                this.selectExistingTab(previouslySelected);
+            else if(!this.values.isEmpty())
+                this.selectExistingTab(this.values.get(0).getValue());
+            else this.tabs.setSelectedTab(null);
+        }
+        finally {
+            this.reconcilingTabs = false;
+        }
+        this.propagateValue();
     }
 
     @Override
@@ -0,0 +1,202 @@
+package org.vaadin.miki.superfields.tabs;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+/**
+ * A bounded cache of tab contents that can be shared between instances of {@link SuperTabs} in the same {@link UI}.
+ * Contents are identified by keys provided together with the cache to {@link SuperTabs#setContentCache(TabContentCache, com.vaadin.flow.function.SerializableFunction)}.
+ * When full, the least recently used contents are removed. Keeps track of how many times contents were (or were not) found.
+ *
+ * A component can only have one parent, so the cache only holds contents that are not used: contents found in the cache are taken out of it,
+ * and {@link SuperTabs} puts them back when their tab is removed or the contents are evicted.
+ * Components cannot be moved between UIs, so a cache must not be shared by more than one {@link UI}.
+ *
+ * @author miki
+ * @since 2020-06-10
+ */
+public class TabContentCache implements Serializable {
+
+    /**
+     * Default maximum number of contents kept in the cache.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Returns the cache stored in the current {@link UI}, creating it if needed.
+     * @return A cache shared by everything in the current UI.
+     * @throws IllegalStateException When there is no current UI.
+     */
+    public static TabContentCache forCurrentUI() {
+        final UI ui = UI.getCurrent();
+        if(ui == null)
+            throw new IllegalStateException("there is no current UI");
+        TabContentCache result = ComponentUtil.getData(ui, TabContentCache.class);
+        if(result == null) {
+            result = new TabContentCache();
+            ComponentUtil.setData(ui, TabContentCache.class, result);
+        }
+        return result;
+    }
+
+    // access order, so the first entry is the least recently used one
+    private final LinkedHashMap<Object, Component> components = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int capacity = DEFAULT_CAPACITY;
+
+    private long hitCount = 0;
+
+    private long missCount = 0;
+
+    /**
+     * Takes contents stored under given key out of the cache and updates statistics.
+     * @param key Key.
+     * @return Contents, if any. They are no longer in the cache.
+     */
+    Optional<Component> take(Object key) {
+        final Component result = this.components.remove(key);
+        if(result == null)
+            this.missCount++;
+        else this.hitCount++;
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Takes given contents out of the cache, but only if they are still stored under given key. Does not affect statistics.
+     * @param key Key.
+     * @param component Contents that were put in the cache.
+     * @return {@code true} when the contents were still in the cache.
+     */
+    boolean reclaim(Object key, Component component) {
+        return this.components.remove(key, component);
+    }
+
+    /**
+     * Stores contents under given key, removing the least recently used contents if the cache is full.
+     * Replaces contents previously stored under the same key.
+     * @param key Key.
+     * @param component Contents. Must not be used anywhere else.
+     */
+    void put(Object key, Component component) {
+        this.components.put(key, component);
+        this.trim();
+    }
+
+    private void trim() {
+        final Iterator<Object> keys = this.components.keySet().iterator();
+        while(this.components.size() > this.capacity && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Checks whether or not there are contents stored under given key. Does not affect statistics nor the order of use.
+     * @param key Key.
+     * @return {@code true} when there are contents for the key.
+     */
+    public boolean contains(Object key) {
+        return this.components.containsKey(key);
+    }
+
+    /**
+     * Removes contents stored under given key, so that they are generated again next time they are needed.
+     * @param key Key.
+     */
+    public void invalidate(Object key) {
+        this.components.remove(key);
+    }
+
+    /**
+     * Removes all contents from the cache. Does not reset statistics.
+     * @see #resetStatistics()
+     */
+    public void invalidateAll() {
+        this.components.clear();
+    }
+
+    /**
+     * Resets the number of hits and misses to zero.
+     */
+    public void resetStatistics() {
+        this.hitCount = 0;
+        this.missCount = 0;
+    }
+
+    /**
+     * Returns the number of contents currently in the cache.
+     * @return Number of stored contents.
+     */
+    public int size() {
+        return this.components.size();
+    }
+
+    /**
+     * Returns the maximum number of contents kept in the cache.
+     * @return Capacity of the cache.
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Sets the maximum number of contents kept in the cache. Least recently used contents are removed if needed.
+     * @param capacity Capacity. Values less than {@code 0} are replaced with {@code 0}, which turns off caching.
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.trim();
+    }
+
+    /**
+     * Chains {@link #setCapacity(int)} and returns itself.
+     * @param capacity Capacity.
+     * @return This.
+     * @see #setCapacity(int)
+     */
+    public TabContentCache withCapacity(int capacity) {
+        this.setCapacity(capacity);
+        return this;
+    }
+
+    /**
+     * Returns how many times contents were found in the cache.
+     * @return Number of hits.
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * Returns how many times contents were requested, but not found.
+     * @return Number of misses.
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * Returns the ratio of hits to all requests.
+     * @return A number between {@code 0} and {@code 1}; {@code 0} when there were no requests at all.
+     */
+    public double getHitRate() {
+        final long total = this.hitCount + this.missCount;
+        return total == 0 ? 0.0d : (double) this.hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "TabContentCache{" +
+                "size=" + this.size() +
+                ", capacity=" + capacity +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                '}';
+    }
+}
@@ -41,6 +41,26 @@ public class TabHandlers {
                 component.getParent().filter(parent -> parent.equals(div)).map(HasComponents.class::cast).ifPresent(parent -> parent.remove(component))
     );
 
+    /**
+     * All contents are always added to the contents container, but hidden with the {@code hidden} attribute when not selected.
+     * Unlike {@link #VISIBILITY_HANDLER}, the contents are fully present in the browser, which allows {@link SuperTabs#setClientSideSwitching(boolean)}.
+     */
+    public static final TabHandler HIDDEN_ATTRIBUTE_HANDLER = new LambdaTabHandler(
+            "Hidden attribute",
+            (tab, component, div) -> {
+                component.getElement().setAttribute("hidden", true);
+                div.add(component);
+            },
+            (tab, component, div) -> {
+                div.remove(component);
+                component.getElement().removeAttribute("hidden");
+            },
+            (tab, component, div) ->
+                component.getElement().removeAttribute("hidden"),
+            (tab, component, div) ->
+                component.getElement().setAttribute("hidden", true)
+    );
+
     /**
      * Returns an instance of {@link TabHandler} in which all contents are always visible, but a selected tab contents has a given class name.
      * @param selectedClassName Class name to use.
@@ -0,0 +1,47 @@
+package org.vaadin.miki.superfields.tabs;
+
+/**
+ * Stages in the life of a tab in {@link SuperTabs} that can be timed.
+ *
+ * @author miki
+ * @since 2020-06-10
+ * @see TabTimingListener
+ */
+public enum TabLifecycleStage {
+
+    /**
+     * Generating a tab header with {@link TabHeaderGenerator}.
+     */
+    HEADER_GENERATION,
+
+    /**
+     * Generating tab contents with {@link TabContentGenerator}.
+     */
+    CONTENT_GENERATION,
+
+    /**
+     * Calling {@link TabHandler#tabAdded(com.vaadin.flow.component.tabs.Tab, com.vaadin.flow.component.Component, com.vaadin.flow.component.HasComponents)}.
+     */
+    TAB_ADDED,
+
+    /**
+     * Calling {@link TabHandler#tabRemoved(com.vaadin.flow.component.tabs.Tab, com.vaadin.flow.component.Component, com.vaadin.flow.component.HasComponents)}.
+     */
+    TAB_REMOVED,
+
+    /**
+     * Calling {@link TabHandler#tabSelected(com.vaadin.flow.component.tabs.Tab, com.vaadin.flow.component.Component, com.vaadin.flow.component.HasComponents)}.
+     */
+    TAB_SELECTED,
+
+    /**
+     * Calling {@link TabHandler#tabDeselected(com.vaadin.flow.component.tabs.Tab, com.vaadin.flow.component.Component, com.vaadin.flow.component.HasComponents)}.
+     */
+    TAB_DESELECTED,
+
+    /**
+     * Updating the value of {@link SuperTabs}, including value change listeners.
+     */
+    VALUE_UPDATE
+
+}
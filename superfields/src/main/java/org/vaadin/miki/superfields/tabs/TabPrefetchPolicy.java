@@ -0,0 +1,27 @@
+package org.vaadin.miki.superfields.tabs;
+
+import java.io.Serializable;
+
+/**
+ * Decides which tabs should have their contents prefetched after a tab is selected.
+ *
+ * @author miki
+ * @since 2020-06-10
+ */
+@FunctionalInterface
+public interface TabPrefetchPolicy extends Serializable {
+
+    /**
+     * Prefetches the tabs right before and right after the selected one.
+     */
+    TabPrefetchPolicy ADJACENT_TABS = (selectedIndex, candidateIndex) -> Math.abs(selectedIndex - candidateIndex) == 1;
+
+    /**
+     * Checks whether or not contents of a tab should be prefetched.
+     * @param selectedIndex Position of the selected tab.
+     * @param candidateIndex Position of the tab to check. Never the same as {@code selectedIndex}.
+     * @return {@code true} when contents of the tab at {@code candidateIndex} should be prefetched.
+     */
+    boolean shouldPrefetch(int selectedIndex, int candidateIndex);
+
+}
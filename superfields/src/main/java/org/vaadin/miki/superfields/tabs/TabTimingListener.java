@@ -0,0 +1,25 @@
+package org.vaadin.miki.superfields.tabs;
+
+import java.io.Serializable;
+
+/**
+ * Receives information about how long a stage in the life of a tab took.
+ * Called synchronously, right after the stage finishes, so implementations should be fast.
+ *
+ * @param <T> Type of value in {@link SuperTabs}.
+ * @author miki
+ * @since 2020-06-10
+ * @see SuperTabs#addTimingListener(TabTimingListener)
+ */
+@FunctionalInterface
+public interface TabTimingListener<T> extends Serializable {
+
+    /**
+     * Called when a stage has finished.
+     * @param value Value of the tab the stage was performed for. May be {@code null}, for example when updating value to an empty one.
+     * @param stage Stage.
+     * @param durationNanos Duration of the stage, in nanoseconds.
+     */
+    void stageFinished(T value, TabLifecycleStage stage, long durationNanos);
+
+}
@@ -0,0 +1,118 @@
+package org.vaadin.miki.superfields.tabs;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A {@link TabTimingListener} that keeps rolling statistics of durations for each {@link TabLifecycleStage}.
+ * Only the most recent durations (up to the window size) are used to compute percentiles.
+ *
+ * @author miki
+ * @since 2020-06-10
+ */
+public class TabTimingStatistics implements TabTimingListener<Object> {
+
+    /**
+     * Default number of most recent durations kept for each stage.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1000;
+
+    private final int windowSize;
+
+    private final Map<TabLifecycleStage, long[]> durations = new EnumMap<>(TabLifecycleStage.class);
+
+    private final Map<TabLifecycleStage, Long> counts = new EnumMap<>(TabLifecycleStage.class);
+
+    /**
+     * Creates the statistics with {@link #DEFAULT_WINDOW_SIZE}.
+     */
+    public TabTimingStatistics() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates the statistics with given window size.
+     * @param windowSize Number of most recent durations kept for each stage. Values less than {@code 1} are replaced with {@code 1}.
+     */
+    public TabTimingStatistics(int windowSize) {
+        this.windowSize = Math.max(1, windowSize);
+    }
+
+    @Override
+    public synchronized void stageFinished(Object value, TabLifecycleStage stage, long durationNanos) {
+        final long count = this.getCount(stage);
+        this.durations.computeIfAbsent(stage, key -> new long[this.windowSize])[(int) (count % this.windowSize)] = durationNanos;
+        this.counts.put(stage, count + 1);
+    }
+
+    /**
+     * Returns the number of times a stage was recorded.
+     * @param stage Stage.
+     * @return Total number of recorded durations, including those no longer in the window.
+     */
+    public synchronized long getCount(TabLifecycleStage stage) {
+        return this.counts.getOrDefault(stage, 0L);
+    }
+
+    /**
+     * Returns a percentile of recent durations of a stage.
+     * @param stage Stage.
+     * @param percentile Percentile, between {@code 0} and {@code 100}.
+     * @return Duration in nanoseconds (nearest-rank method); {@code 0} when nothing was recorded.
+     */
+    public synchronized long getPercentile(TabLifecycleStage stage, double percentile) {
+        final int size = (int) Math.min(this.getCount(stage), this.windowSize);
+        if(size == 0)
+            return 0;
+        final long[] sorted = Arrays.copyOf(this.durations.get(stage), size);
+        Arrays.sort(sorted);
+        final int rank = (int) Math.ceil(Math.max(0.0d, Math.min(100.0d, percentile)) / 100.0d * size);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Returns the median of recent durations of a stage.
+     * @param stage Stage.
+     * @return Duration in nanoseconds.
+     */
+    public long getMedian(TabLifecycleStage stage) {
+        return this.getPercentile(stage, 50);
+    }
+
+    /**
+     * Returns the 99th percentile of recent durations of a stage.
+     * @param stage Stage.
+     * @return Duration in nanoseconds.
+     */
+    public long get99thPercentile(TabLifecycleStage stage) {
+        return this.getPercentile(stage, 99);
+    }
+
+    /**
+     * Removes all recorded durations.
+     */
+    public synchronized void reset() {
+        this.durations.clear();
+        this.counts.clear();
+    }
+
+    /**
+     * Returns the size of the window.
+     * @return Number of most recent durations kept for each stage.
+     */
+    public int getWindowSize() {
+        return this.windowSize;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder builder = new StringBuilder("TabTimingStatistics{");
+        for(TabLifecycleStage stage: TabLifecycleStage.values())
+            if(this.getCount(stage) > 0)
+                builder.append(stage).append(": count=").append(this.getCount(stage))
+                        .append(", p50=").append(this.getMedian(stage))
+                        .append(", p99=").append(this.get99thPercentile(stage)).append("; ");
+        return builder.append('}').toString();
+    }
+}
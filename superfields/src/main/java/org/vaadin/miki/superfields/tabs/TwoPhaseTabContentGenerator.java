@@ -0,0 +1,37 @@
+package org.vaadin.miki.superfields.tabs;
+
+import com.vaadin.flow.component.Component;
+
+/**
+ * A {@link TabContentGenerator} that separates loading data for a tab from creating its contents.
+ * When {@link SuperTabs} prefetches contents of tabs, {@link #prepare(Object)} is called on a background thread
+ * and then {@link #render(Object)} is called with the session lock held.
+ *
+ * @param <V> Type of object to generate content for.
+ * @param <M> Type of model prepared for each tab.
+ * @author miki
+ * @since 2020-06-10
+ */
+public interface TwoPhaseTabContentGenerator<V, M> extends TabContentGenerator<V> {
+
+    /**
+     * Prepares everything that is needed to render tab contents. This is where expensive computations (or loading data) should be done.
+     * This method must be thread-safe and must not create components or rely on thread-bound objects, like {@code UI.getCurrent()}.
+     * @param object Object to prepare contents for.
+     * @return A model of the contents; passed to {@link #render(Object)}.
+     */
+    M prepare(V object);
+
+    /**
+     * Creates contents from a previously prepared model. This method should be cheap.
+     * @param model Model returned by {@link #prepare(Object)}.
+     * @return Content to be added to tabs. Must not be {@code null}.
+     */
+    Component render(M model);
+
+    @Override
+    default Component generateComponent(V object) {
+        return this.render(this.prepare(object));
+    }
+
+}
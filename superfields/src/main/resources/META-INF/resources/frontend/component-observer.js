@@ -3,7 +3,7 @@ import {html, PolymerElement} from '@polymer/polymer/polymer-element.js';
 /**
  * A web component that wraps Intersection Observer object and broadcasts events about changes.
  * This requires Flow and a corresponding server-side Java component to work properly.
- * Alternatively, make sure that this.$server.componentStatusChanged(String, double) is available.
+ * Alternatively, make sure that this.$server.componentStatusesChanged(Array) is available.
  */
 export class ComponentObserver extends PolymerElement {
 
@@ -15,6 +15,20 @@ export class ComponentObserver extends PolymerElement {
         return 'component-observer';
     }
 
+    static get properties() {
+        return {
+            batchDelay: {type: Number, value: 0}
+        };
+    }
+
+    constructor() {
+        super();
+        // key -> transitions to report; keys without transitions report everything
+        this.transitions = new Map();
+        // key -> latest intersection ratio that passed the transitions
+        this.reportedRatios = new Map();
+    }
+
     /**
      * Initialises this object.
      * @param rootElement Root element to use.
@@ -22,20 +36,103 @@ export class ComponentObserver extends PolymerElement {
      * @param range Ranges to listen to.
      */
     initObserver(rootElement, rootMarginString, range) {
-        this.observer = new IntersectionObserver( (changes, observerObject) => changes.forEach(change => {
-            console.log('observed visibility change to '+change.intersectionRatio+' with key '+change.target.dataset.observerIndex);
-            this.$server.componentStatusChanged(change.target.dataset.observerIndex, change.intersectionRatio);
-        }), {root: rootElement, rootMargin: rootMarginString, threshold: range});
+        // key -> latest intersection ratio, waiting to be sent
+        this.pendingChanges = new Map();
+        this.observer = new IntersectionObserver( (changes, observerObject) => {
+            changes.forEach(change => {
+                const key = this.keyOf(change.target);
+                if (this.isReported(key, change.intersectionRatio)) {
+                    this.reportedRatios.set(key, change.intersectionRatio);
+                    this.pendingChanges.set(key, change.intersectionRatio);
+                }
+            });
+            if (this.pendingChanges.size > 0) {
+                this.scheduleChanges();
+            }
+        }, {root: rootElement, rootMargin: rootMarginString, threshold: range});
+    }
+
+    /**
+     * Returns the key of an observed element.
+     * @param element Element.
+     * @returns {number} Key of the element, or NaN when it is not observed.
+     */
+    keyOf(element) {
+        return parseInt(element.dataset.observerIndex);
+    }
+
+    /**
+     * Checks whether a change should be sent to the server, based on the ratio last reported for the same key.
+     * @param key Key of the observed element.
+     * @param ratio Current intersection ratio.
+     * @returns {boolean} Whether or not any of the transitions for the key happened (true when there are none).
+     */
+    isReported(key, ratio) {
+        const transitions = this.transitions.get(key);
+        if (!transitions || transitions.length === 0) {
+            return true;
+        }
+        const last = this.reportedRatios.has(key) ? this.reportedRatios.get(key) : 0;
+        return transitions.some(transition => {
+            switch (transition.type) {
+                case 'reaching': return last < transition.threshold && ratio >= transition.threshold;
+                case 'dropping': return last >= transition.threshold && ratio < transition.threshold;
+                case 'disappearing': return last > 0 && ratio === 0;
+                default: return true;
+            }
+        });
+    }
+
+    /**
+     * Sets transitions to report for given key.
+     * @param key Key of the observed element.
+     * @param transitions Array of transitions (objects with type and threshold); when empty, all changes are reported.
+     */
+    setTransitions(key, transitions) {
+        this.transitions.set(key, transitions || []);
+    }
+
+    /**
+     * Sends pending changes right away or, when batchDelay is set, after that many milliseconds.
+     */
+    scheduleChanges() {
+        if (this.batchDelay > 0) {
+            if (!this.pendingTimeout) {
+                this.pendingTimeout = setTimeout(() => this.sendChanges(), this.batchDelay);
+            }
+        }
+        else this.sendChanges();
+    }
+
+    /**
+     * Sends all pending changes to the server in one request.
+     */
+    sendChanges() {
+        this.pendingTimeout = undefined;
+        const changes = [];
+        this.pendingChanges.forEach((range, key) => {
+            if (!isNaN(key)) {
+                changes.push({key: key, range: range});
+            }
+        });
+        this.pendingChanges.clear();
+        if (changes.length > 0) {
+            console.log('sending '+changes.length+' visibility changes');
+            this.$server.componentStatusesChanged(changes);
+        }
     }
 
     /**
      * Starts observing.
      * @param what What to observe (element).
-     * @param key What is the key to report to the server-side.
+     * @param key What is the key (a number) to report to the server-side.
+     * @param transitions Transitions to report (see setTransitions).
      */
     // using index and dataset is a workaround for https://github.com/vaadin/flow/issues/6372
-    observe(what, key) {
+    observe(what, key, transitions) {
         what.dataset.observerIndex = key; // using html data-* attributes
+        this.setTransitions(key, transitions);
+        this.reportedRatios.delete(key);
         console.log('observing '+what+' with key '+key);
         this.observer.observe(what);
     }
@@ -45,6 +142,12 @@ export class ComponentObserver extends PolymerElement {
      * @param what What to stop observing (element).
      */
     unobserve(what) {
+        const key = this.keyOf(what);
+        if (this.pendingChanges) {
+            this.pendingChanges.delete(key);
+        }
+        this.transitions.delete(key);
+        this.reportedRatios.delete(key);
         delete what.dataset.observerIndex; // clears data-* attribute
         // on detach it seems that observer gets undefined
         // since components get unobserved on detach as well, this is a safeguard
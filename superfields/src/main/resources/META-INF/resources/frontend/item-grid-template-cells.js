@@ -0,0 +1,131 @@
+import {html, PolymerElement} from '@polymer/polymer/polymer-element.js';
+
+/**
+ * A web component that renders cells of an item grid from a template string and an array of JSON objects.
+ * Each cell is a div with data-index attribute; clicking a cell dispatches cell-click event with its index.
+ * In the template, [[name]] is replaced with (escaped) value of property name of an item (nested properties are separated with dots),
+ * and [[index]] with the index of the cell.
+ * Items are sent by the server in ranges, through updateItems; only the cells in the range are rendered again.
+ * This requires Flow and a corresponding server-side Java component to work properly.
+ */
+export class ItemGridTemplateCells extends PolymerElement {
+
+    static get template() {
+        // cells are in light DOM, so they need a slot to be shown
+        return html`<slot></slot>`;
+    }
+
+    static get is() {
+        return 'item-grid-template-cells';
+    }
+
+    static get properties() {
+        return {
+            cellTemplate: {type: String, value: ''},
+            items: {type: Array, value: () => []},
+            columnCount: {type: Number, value: 3},
+            selected: {type: Array, value: () => []},
+            selectedClassName: {type: String, value: 'item-grid-selected-cell'}
+        };
+    }
+
+    static get observers() {
+        return [
+            'render(cellTemplate, columnCount)',
+            'markSelected(selected, selectedClassName)'
+        ];
+    }
+
+    ready() {
+        super.ready();
+        this.addEventListener('click', event => {
+            const cell = event.target.closest('[data-index]');
+            if (cell && cell.parentElement === this) {
+                this.dispatchEvent(new CustomEvent('cell-click', {detail: {index: parseInt(cell.dataset.index), shiftKey: event.shiftKey}}));
+            }
+        });
+    }
+
+    /**
+     * Escapes a value, so that it can be safely put into html.
+     * @param value Value to escape.
+     * @returns {string} Escaped string; empty when value is null or undefined.
+     */
+    escape(value) {
+        if (value === null || value === undefined) {
+            return '';
+        }
+        return String(value).replace(/&/g, '&amp;').replace(/</g, '&lt;').replace(/>/g, '&gt;').replace(/"/g, '&quot;').replace(/'/g, '&#39;');
+    }
+
+    /**
+     * Produces html of a single cell.
+     * @param cellTemplate Template of a single cell.
+     * @param item Item to render.
+     * @param index Index of the cell.
+     * @returns {string} Html of the cell.
+     */
+    renderCell(cellTemplate, item, index) {
+        return '<div class="item-grid-cell item-grid-template-cell" data-index="' + index + '">'
+            + (cellTemplate || '').replace(/\[\[\s*([\w.]+)\s*]]/g, (match, path) =>
+                this.escape(path === 'index' ? index : path.split('.').reduce((value, key) => value === null || value === undefined ? value : value[key], item)))
+            + '</div>';
+    }
+
+    /**
+     * Renders all cells. Cells are put into light DOM, so that they can be styled like any other cells of the grid.
+     * @param cellTemplate Template of a single cell.
+     * @param columnCount Number of columns.
+     */
+    render(cellTemplate, columnCount) {
+        this.style.display = 'grid';
+        this.style.gridTemplateColumns = 'repeat(' + columnCount + ', minmax(0, 1fr))';
+        this.innerHTML = (this.items || []).map((item, index) => this.renderCell(cellTemplate, item, index)).join('');
+        this.markSelected(this.selected, this.selectedClassName);
+    }
+
+    /**
+     * Replaces a range of items and renders only the cells of that range. Called by the server.
+     * @param from Index of the first changed item.
+     * @param changed Changed items, starting at from.
+     * @param size Number of all items; cells beyond it are removed.
+     */
+    updateItems(from, changed, size) {
+        const items = (this.items || []).slice(0, size);
+        changed.forEach((item, offset) => items[from + offset] = item);
+        this.items = items;
+        while (this.children.length > size) {
+            this.removeChild(this.lastElementChild);
+        }
+        const range = document.createElement('template');
+        range.innerHTML = changed.map((item, offset) => this.renderCell(this.cellTemplate, item, from + offset)).join('');
+        Array.from(range.content.children).forEach((cell, offset) => {
+            const existing = this.children[from + offset];
+            if (existing) {
+                this.replaceChild(cell, existing);
+            } else {
+                this.appendChild(cell);
+            }
+        });
+        this.markSelected(this.selected, this.selectedClassName);
+    }
+
+    /**
+     * Marks selected cells with a class name, removing it from all other cells.
+     * @param selected Indexes of selected cells.
+     * @param selectedClassName Class name to use.
+     */
+    markSelected(selected, selectedClassName) {
+        const indexes = new Set(selected || []);
+        Array.from(this.children).forEach(cell => {
+            if (indexes.has(parseInt(cell.dataset.index))) {
+                cell.classList.add(selectedClassName);
+            } else {
+                cell.classList.remove(selectedClassName);
+            }
+        });
+    }
+
+}
+
+customElements.define(ItemGridTemplateCells.is, ItemGridTemplateCells);
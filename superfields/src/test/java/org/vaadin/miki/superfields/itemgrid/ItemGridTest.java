@@ -1,18 +1,37 @@
 package org.vaadin.miki.superfields.itemgrid;
 
 import com.github.mvysny.kaributesting.v10.MockVaadin;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.html.Paragraph;
 import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.component.internal.UIInternals;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.ListDataProvider;
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.vaadin.miki.superfields.lazyload.ObservedField;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class ItemGridTest {
 
@@ -240,4 +259,680 @@ public class ItemGridTest {
         Assert.assertTrue(this.grid.getCellInformation().stream().noneMatch(info -> info.getComponent().getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME)));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testRecyclingCellGeneratorReusesComponents() {
+        final int[] created = new int[1];
+        this.grid.setCellGenerator(new RecyclingCellGenerator<String, Span>() {
+            @Override
+            public Span create() {
+                created[0]++;
+                return new Span();
+            }
+
+            @Override
+            public void bind(Span component, String value, int row, int column) {
+                component.setText(value);
+            }
+        });
+        this.grid.setItems("A", "B", "C", "D");
+        Assert.assertEquals(4, created[0]);
+        Assert.assertEquals(0, this.grid.getCellComponentPool().getHitCount());
+
+        final List<Component> previous = this.grid.getCellComponents().collect(Collectors.toList());
+        this.grid.setItems("E", "F", "G");
+        Assert.assertEquals("no new components should be created when there are enough in the pool", 4, created[0]);
+        Assert.assertEquals(3, this.grid.getCellComponentPool().getHitCount());
+        Assert.assertEquals(1, this.grid.getCellComponentPool().size());
+        Assert.assertTrue(this.grid.getCellComponents().allMatch(previous::contains));
+        Assert.assertEquals(Arrays.asList("E", "F", "G"), this.grid.getCellComponents().map(component -> ((Span) component).getText()).collect(Collectors.toList()));
+
+        // selection must still work on recycled components
+        this.grid.simulateCellClick(0, 1);
+        Assert.assertEquals("F", this.grid.getValue());
+        Assert.assertEquals(1, this.eventCounter);
+
+        this.grid.setCellComponentPoolCapacity(0);
+        this.grid.setItems("H", "I");
+        Assert.assertEquals("with no capacity, components are not kept", 0, this.grid.getCellComponentPool().size());
+    }
+
+    @Test
+    public void testMultiSelectionWithRangesAndDeltas() {
+        final List<CellMultiSelectionEvent<String>> events = new ArrayList<>();
+        final String[] items = new String[]{"zero", "one", "two", "three", "four", "five", "six", "seven"};
+        this.grid.setItems(items);
+        this.grid.addCellMultiSelectionListener(events::add);
+        this.grid.setValue(items[1]);
+        this.eventCounter = 0;
+
+        this.grid.setMultiSelection(true);
+        Assert.assertEquals("turning multiple selection on keeps current selection", Collections.singletonList(items[1]), this.grid.getSelectedItems());
+        Assert.assertEquals(items[1], this.grid.getValue());
+        Assert.assertTrue(events.isEmpty());
+
+        // shift-click on "five" selects everything from "one"
+        this.grid.simulateCellClick(1, 2, true);
+        Assert.assertEquals(Arrays.asList(items[1], items[2], items[3], items[4], items[5]), this.grid.getSelectedItems());
+        Assert.assertEquals("lowest selected item is the value, so it has not changed", 0, this.eventCounter);
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(4, events.get(0).getAddedCount());
+        Assert.assertEquals(0, events.get(0).getRemovedCount());
+        Assert.assertEquals(Arrays.asList(items[2], items[3], items[4], items[5]), events.get(0).getAddedItems().collect(Collectors.toList()));
+        Assert.assertEquals(5, this.grid.getCellComponents().filter(component -> component.getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME)).count());
+
+        // clicking without shift toggles a cell
+        this.grid.simulateCellClick(0, 1);
+        Assert.assertFalse(this.grid.isSelected(1));
+        Assert.assertEquals(items[2], this.grid.getValue());
+        Assert.assertEquals(1, this.eventCounter);
+        Assert.assertEquals(Collections.singletonList(items[1]), events.get(1).getRemovedItems().collect(Collectors.toList()));
+
+        this.grid.invertSelection();
+        Assert.assertEquals(Arrays.asList(items[0], items[1], items[6], items[7]), this.grid.getSelectedItems());
+        Assert.assertEquals(items[0], this.grid.getValue());
+
+        events.clear();
+        this.grid.selectAll();
+        Assert.assertEquals(8, this.grid.getSelectedIndexes().cardinality());
+        Assert.assertEquals("select all should result in one event only", 1, events.size());
+        Assert.assertEquals(4, events.get(0).getAddedCount());
+
+        // changing column count preserves selection
+        this.grid.setColumnCount(5);
+        Assert.assertEquals(8, this.grid.getSelectedIndexes().cardinality());
+        Assert.assertEquals(1, events.size());
+
+        this.grid.deselectAll();
+        Assert.assertTrue(this.grid.getSelectedItems().isEmpty());
+        Assert.assertNull(this.grid.getValue());
+
+        this.grid.simulateCellClick(0, 3);
+        this.grid.simulateCellClick(1, 0);
+        this.grid.setMultiSelection(false);
+        Assert.assertEquals("only the first selected item should remain selected", Collections.singletonList(items[3]), this.grid.getSelectedItems());
+        Assert.assertEquals(items[3], this.grid.getValue());
+        Assert.assertEquals(1, this.grid.getCellComponents().filter(component -> component.getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME)).count());
+    }
+
+    @Test
+    public void testMultiCellSelectionHandlerGetsOneCallPerChange() {
+        final List<CellSelectionEvent<String>> cellEvents = new ArrayList<>();
+        final List<CellMultiSelectionEvent<String>> multiEvents = new ArrayList<>();
+        this.grid.setItems("zero", "one", "two", "three", "four", "five", "six", "seven");
+        this.grid.setCellSelectionHandler(new MultiCellSelectionHandler<String>() {
+            @Override
+            public void cellMultiSelectionChanged(CellMultiSelectionEvent<String> event) {
+                multiEvents.add(event);
+            }
+
+            @Override
+            public void cellSelectionChanged(CellSelectionEvent<String> event) {
+                cellEvents.add(event);
+            }
+        });
+        this.grid.setMultiSelection(true);
+        cellEvents.clear();
+
+        this.grid.selectAll();
+        Assert.assertEquals(1, multiEvents.size());
+        Assert.assertEquals(8, multiEvents.get(0).getAddedCount());
+        Assert.assertSame(this.grid, multiEvents.get(0).getSource());
+        Assert.assertEquals("three", this.grid.getCellInformationAt(3).map(CellInformation::getValue).orElse(null));
+        this.grid.invertSelection();
+        Assert.assertEquals(2, multiEvents.size());
+        Assert.assertEquals(8, multiEvents.get(1).getRemovedCount());
+        Assert.assertTrue("no per-cell events are created", cellEvents.isEmpty());
+        Assert.assertFalse(this.grid.getCellInformationAt(8).isPresent());
+    }
+
+    @Test
+    public void testCssGridLayoutPutsCellsInOneContainer() {
+        final String[] items = new String[]{"zero", "one", "two", "three", "four", "five", "six", "seven"};
+        this.grid.setLayoutMode(ItemGrid.LayoutMode.CSS_GRID);
+        this.grid.setItems(items);
+
+        final Component container = this.grid.getChildren().findFirst().orElseThrow(AssertionError::new);
+        Assert.assertEquals("cells should be placed directly in the container", 8, container.getChildren().count());
+        Assert.assertTrue(container.getElement().getClassList().contains(ItemGrid.CSS_GRID_CLASS_NAME));
+        Assert.assertEquals("repeat(3, minmax(0, 1fr))", container.getElement().getStyle().get("grid-template-columns"));
+        Assert.assertTrue("default cells should have only the base class name", this.grid.getCellComponents().allMatch(component -> component.getElement().getClassList().size() == 1 && component.getElement().getClassList().contains("item-grid-cell")));
+        Assert.assertEquals(3, this.grid.getRowCount());
+        Assert.assertEquals(items[5], this.grid.getCellInformation(1, 2).map(CellInformation::getValue).orElse(null));
+        Assert.assertFalse(this.grid.getCellInformation(2, 2).isPresent());
+        Assert.assertFalse(this.grid.getCellInformation(0, 3).isPresent());
+
+        this.grid.simulateCellClick(2, 1);
+        Assert.assertEquals(items[7], this.grid.getValue());
+        Assert.assertTrue(this.grid.getCellInformation(2, 1).orElseThrow(AssertionError::new).getComponent().getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME));
+
+        this.grid.setColumnCount(4);
+        Assert.assertEquals(2, this.grid.getRowCount());
+        Assert.assertEquals("repeat(4, minmax(0, 1fr))", container.getElement().getStyle().get("grid-template-columns"));
+        Assert.assertEquals(items[7], this.grid.getValue());
+
+        this.grid.setLayoutMode(ItemGrid.LayoutMode.ROWS);
+        Assert.assertEquals("back to rows", 2, container.getChildren().count());
+        Assert.assertFalse(container.getElement().getClassList().contains(ItemGrid.CSS_GRID_CLASS_NAME));
+    }
+
+    @Test
+    public void testDataProviderRefreshesOnlyChangedCells() {
+        final List<String> items = new ArrayList<>(Arrays.asList("A", "B", "C", "D", "E"));
+        final ListDataProvider<String> provider = DataProvider.ofCollection(items);
+        this.grid.setDataProvider(provider);
+        this.grid.setValue("D");
+        this.eventCounter = 0;
+        Assert.assertEquals(5, this.grid.size());
+        final List<Component> before = this.grid.getCellComponents().collect(Collectors.toList());
+
+        // single item refresh regenerates one cell only
+        provider.refreshItem("C");
+        final List<Component> afterItemRefresh = this.grid.getCellComponents().collect(Collectors.toList());
+        for(int index = 0; index < before.size(); index++)
+            Assert.assertEquals("only the refreshed cell should change", index != 2, before.get(index) == afterItemRefresh.get(index));
+
+        // full refresh keeps unchanged cells
+        items.set(1, "X");
+        items.add("F");
+        provider.refreshAll();
+        final List<Component> afterRefresh = this.grid.getCellComponents().collect(Collectors.toList());
+        Assert.assertEquals(6, this.grid.size());
+        Assert.assertEquals(2, this.grid.getRowCount());
+        Assert.assertSame(afterItemRefresh.get(0), afterRefresh.get(0));
+        Assert.assertNotSame(afterItemRefresh.get(1), afterRefresh.get(1));
+        Assert.assertEquals("X", ((Span) afterRefresh.get(1)).getText());
+        for(int index = 2; index < 5; index++)
+            Assert.assertSame(afterItemRefresh.get(index), afterRefresh.get(index));
+        Assert.assertEquals("F", this.grid.getCellInformation(1, 2).map(CellInformation::getValue).orElse(null));
+        Assert.assertEquals("D", this.grid.getValue());
+        Assert.assertEquals(0, this.eventCounter);
+
+        // removing selected item clears the value
+        items.remove("D");
+        provider.refreshAll();
+        Assert.assertEquals(5, this.grid.size());
+        Assert.assertNull(this.grid.getValue());
+        Assert.assertEquals(1, this.eventCounter);
+        Assert.assertTrue(this.grid.getCellComponents().noneMatch(component -> component.getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME)));
+
+        // setting items stops tracking changes
+        this.grid.setItems("one", "two");
+        items.clear();
+        provider.refreshAll();
+        Assert.assertEquals(2, this.grid.size());
+    }
+
+    @Test
+    public void testMultiSelectionEventsAfterItemChangesHaveOnlyDifference() {
+        final List<CellMultiSelectionEvent<String>> events = new ArrayList<>();
+        this.grid.setItems("a", "b", "c", "d");
+        this.grid.setMultiSelection(true);
+        this.grid.simulateCellClick(0, 1);
+        this.grid.simulateCellClick(0, 2);
+        Assert.assertEquals(Arrays.asList("b", "c"), this.grid.getSelectedItems());
+        this.grid.addCellMultiSelectionListener(events::add);
+
+        // selected items stay selected, even though their cells moved
+        this.grid.setItems("x", "c", "b", "d");
+        Assert.assertEquals(Arrays.asList("c", "b"), this.grid.getSelectedItems());
+        Assert.assertTrue("nothing was added nor removed", events.isEmpty());
+
+        this.grid.setItems("b", "x");
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(0, events.get(0).getAddedCount());
+        Assert.assertEquals(Collections.singletonList("c"), events.get(0).getRemovedItems().collect(Collectors.toList()));
+
+        // the same with a data provider
+        events.clear();
+        final List<String> items = new ArrayList<>(Arrays.asList("b", "x", "y"));
+        final ListDataProvider<String> provider = DataProvider.ofCollection(items);
+        this.grid.setDataProvider(provider);
+        events.clear();
+        Assert.assertEquals(Collections.singletonList("b"), this.grid.getSelectedItems());
+        items.add(0, "z");
+        provider.refreshAll();
+        Assert.assertTrue(events.isEmpty());
+        items.remove("b");
+        provider.refreshAll();
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(Collections.singletonList("b"), events.get(0).getRemovedItems().collect(Collectors.toList()));
+        Assert.assertEquals(0, events.get(0).getAddedCount());
+    }
+
+    @Test
+    public void testDataProviderRefreshMatchesCellsByIdentifier() {
+        final List<String> items = new ArrayList<>(Arrays.asList("A", "B", "C", "D", "E"));
+        final ListDataProvider<String> provider = DataProvider.ofCollection(items);
+        this.grid.setDataProvider(provider);
+        this.grid.setValue("C");
+        this.eventCounter = 0;
+        final List<Component> before = this.grid.getCellComponents().collect(Collectors.toList());
+
+        // inserting at the front moves existing components
+        items.add(0, "Z");
+        provider.refreshAll();
+        final List<Component> afterInsert = this.grid.getCellComponents().collect(Collectors.toList());
+        Assert.assertEquals(6, afterInsert.size());
+        Assert.assertEquals("Z", ((Span) afterInsert.get(0)).getText());
+        for(int index = 0; index < before.size(); index++)
+            Assert.assertSame("existing cells should keep their components", before.get(index), afterInsert.get(index + 1));
+        Assert.assertEquals("C", this.grid.getCellInformation(1, 0).map(CellInformation::getValue).orElse(null));
+        Assert.assertEquals("C", this.grid.getValue());
+        Assert.assertEquals(0, this.eventCounter);
+        Assert.assertTrue(afterInsert.get(3).getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME));
+        Assert.assertTrue("moved default cells should get new striping", afterInsert.get(3).getElement().getClassList().contains("item-grid-cell-row-odd"));
+        final List<Component> rows = this.grid.getChildren().findFirst().orElseThrow(AssertionError::new).getChildren().collect(Collectors.toList());
+        Assert.assertEquals(2, rows.size());
+        Assert.assertEquals(afterInsert.subList(0, 3), rows.get(0).getChildren().collect(Collectors.toList()));
+        Assert.assertEquals(afterInsert.subList(3, 6), rows.get(1).getChildren().collect(Collectors.toList()));
+
+        // removing from the front moves them back
+        items.remove(0);
+        items.remove(0);
+        provider.refreshAll();
+        final List<Component> afterRemove = this.grid.getCellComponents().collect(Collectors.toList());
+        Assert.assertEquals(before.subList(1, 5), afterRemove);
+        Assert.assertEquals(2, this.grid.getRowCount());
+        Assert.assertEquals(2, this.grid.getChildren().findFirst().orElseThrow(AssertionError::new).getChildren().count());
+        Assert.assertFalse(before.get(0).getParent().isPresent());
+    }
+
+    private Optional<ObservedField> getInfiniteScrollSentinel() {
+        return this.grid.getChildren().filter(ObservedField.class::isInstance).map(ObservedField.class::cast).findFirst();
+    }
+
+    @Test
+    public void testAddItemsAndInfiniteScroll() {
+        UI.getCurrent().add(this.grid);
+        this.grid.setItems("zero", "one");
+        this.grid.setValue("three");
+        this.eventCounter = 0;
+        final List<Component> before = this.grid.getCellComponents().collect(Collectors.toList());
+        this.grid.addItems("two", "three", "four");
+        Assert.assertEquals(5, this.grid.size());
+        Assert.assertEquals(2, this.grid.getRowCount());
+        Assert.assertSame(before.get(0), this.grid.getCellComponents().findFirst().orElse(null));
+        Assert.assertSame(before.get(1), this.grid.getCellComponents().skip(1).findFirst().orElse(null));
+        Assert.assertEquals("two", this.grid.getCellInformation(0, 2).map(CellInformation::getValue).orElse(null));
+        Assert.assertTrue("added cell with current value should be selected", this.grid.getCellInformation(1, 0).orElseThrow(AssertionError::new).getComponent().getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME));
+        Assert.assertEquals(0, this.eventCounter);
+        Assert.assertFalse(this.getInfiniteScrollSentinel().isPresent());
+
+        final List<Integer> requestedOffsets = new ArrayList<>();
+        final List<String> feed = Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j");
+        this.grid.setInfiniteScroll((offset, limit) -> {
+            requestedOffsets.add(offset);
+            return feed.subList(Math.min(offset, feed.size()), Math.min(offset + limit, feed.size()));
+        }, 4);
+        Assert.assertEquals(4, this.grid.size());
+        Assert.assertTrue(this.grid.hasMorePages());
+        final ObservedField sentinel = this.getInfiniteScrollSentinel().orElseThrow(AssertionError::new);
+        Assert.assertTrue(sentinel.getClassNames().contains(ItemGrid.INFINITE_SCROLL_SENTINEL_CLASS_NAME));
+
+        // sentinel shown on screen loads the next page
+        final Component firstCell = this.grid.getCellComponents().findFirst().orElseThrow(AssertionError::new);
+        sentinel.setValue(true);
+        Assert.assertEquals(8, this.grid.size());
+        Assert.assertSame(firstCell, this.grid.getCellComponents().findFirst().orElse(null));
+        Assert.assertFalse("sentinel is re-added and reports visibility again", sentinel.getValue());
+        sentinel.setValue(true);
+        Assert.assertEquals(10, this.grid.size());
+        Assert.assertEquals(Arrays.asList(0, 4, 8), requestedOffsets);
+        Assert.assertFalse(this.grid.hasMorePages());
+        Assert.assertFalse(this.getInfiniteScrollSentinel().isPresent());
+        this.grid.loadNextPage();
+        Assert.assertEquals(3, requestedOffsets.size());
+
+        // pages from a data provider
+        this.grid.setInfiniteScroll(ItemPageLoader.fromDataProvider(DataProvider.ofCollection(feed)), 6);
+        Assert.assertEquals(6, this.grid.size());
+        this.grid.loadNextPage();
+        Assert.assertEquals(10, this.grid.size());
+        Assert.assertEquals("j", this.grid.getCellInformation(3, 0).map(CellInformation::getValue).orElse(null));
+        Assert.assertFalse(this.grid.hasMorePages());
+    }
+
+    @Test
+    public void testAsyncCellGenerationWithPlaceholders() {
+        UI.getCurrent().add(this.grid);
+        final List<Runnable> tasks = new ArrayList<>();
+        this.grid.setCellGenerator((item, row, col) -> new Paragraph(item));
+        this.grid.setAsyncConcurrencyLimit(2);
+        this.grid.setAsyncCellGeneration(tasks::add);
+        this.grid.setItems("a", "b", "c", "d", "e");
+        this.grid.setValue("b");
+        Assert.assertEquals(5, this.grid.size());
+        Assert.assertTrue(this.grid.getCellComponents().allMatch(component -> component.getElement().getClassList().contains(ItemGrid.PLACEHOLDER_CELL_CLASS_NAME)));
+        Assert.assertEquals("concurrency limit", 2, tasks.size());
+        Assert.assertEquals(5, this.grid.getPendingCellCount());
+
+        // finished cell replaces its placeholder and keeps selection
+        tasks.get(1).run();
+        MockVaadin.runUIQueue();
+        final Component generated = this.grid.getCellInformation(0, 1).orElseThrow(AssertionError::new).getComponent();
+        Assert.assertTrue(generated instanceof Paragraph);
+        Assert.assertTrue(generated.getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME));
+        Assert.assertEquals(3, tasks.size());
+        Assert.assertEquals(4, this.grid.getPendingCellCount());
+
+        // repainting cancels generation; tasks that have not started free their slots right away
+        this.grid.setColumnCount(2);
+        Assert.assertTrue(((Future<?>) tasks.get(0)).isCancelled());
+        Assert.assertTrue(((Future<?>) tasks.get(2)).isCancelled());
+        Assert.assertEquals(5, tasks.size());
+        tasks.get(0).run();
+        MockVaadin.runUIQueue();
+        Assert.assertTrue(this.grid.getCellComponents().allMatch(component -> component.getElement().getClassList().contains(ItemGrid.PLACEHOLDER_CELL_CLASS_NAME)));
+        Assert.assertEquals(5, this.grid.getPendingCellCount());
+        tasks.get(3).run();
+        tasks.get(4).run();
+        MockVaadin.runUIQueue();
+        Assert.assertEquals(2, this.grid.getCellComponents().filter(Paragraph.class::isInstance).count());
+
+        // turning it off generates the remaining cells right away
+        this.grid.setAsyncCellGeneration(null);
+        Assert.assertEquals(0, this.grid.getPendingCellCount());
+        Assert.assertTrue(this.grid.getCellComponents().allMatch(Paragraph.class::isInstance));
+        Assert.assertEquals("b", this.grid.getValue());
+        Assert.assertTrue(this.grid.getCellInformation(0, 1).orElseThrow(AssertionError::new).getComponent().getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME));
+    }
+
+    @Test
+    public void testTimedOutCellGenerationKeepsSlotUntilGeneratorReturns() throws InterruptedException {
+        UI.getCurrent().add(this.grid);
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final CountDownLatch finish = new CountDownLatch(1);
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger interrupted = new AtomicInteger();
+        try {
+            this.grid.setCellGenerator((item, row, col) -> {
+                started.incrementAndGet();
+                // ignores interruptions, like a call that cannot be stopped
+                while(finish.getCount() > 0)
+                    try {
+                        finish.await();
+                    }
+                    catch(InterruptedException interruption) {
+                        interrupted.incrementAndGet();
+                    }
+                return new Paragraph(item);
+            });
+            this.grid.setAsyncConcurrencyLimit(2);
+            this.grid.setAsyncTimeout(Duration.ofMillis(100));
+            this.grid.setAsyncCellGeneration(executor);
+            this.grid.setItems("a", "b", "c", "d", "e");
+
+            // timed out cells get fallback components, but their generators are still running
+            waitFor(() -> this.grid.getPendingCellCount() == 3 && interrupted.get() == 2);
+            Assert.assertEquals(2, this.grid.getCellComponents().filter(component -> !component.getElement().getClassList().contains(ItemGrid.PLACEHOLDER_CELL_CLASS_NAME)).count());
+            Assert.assertEquals("no new generation while slots are taken", 2, started.get());
+
+            finish.countDown();
+            waitFor(() -> this.grid.getPendingCellCount() == 0);
+            Assert.assertEquals(5, started.get());
+            Assert.assertEquals(3, this.grid.getCellComponents().filter(Paragraph.class::isInstance).count());
+        }
+        finally {
+            finish.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for(int attempt = 0; attempt < 500 && !condition.getAsBoolean(); attempt++) {
+            Thread.sleep(10);
+            MockVaadin.runUIQueue();
+        }
+        Assert.assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    public void testTwoPhaseCellGeneratorPreparesAllCells() {
+        final List<String> prepared = Collections.synchronizedList(new ArrayList<>());
+        this.grid.setCellGenerator(new TwoPhaseCellGenerator<String, String>() {
+            @Override
+            public String prepare(String value, int row, int column) {
+                prepared.add(value);
+                return value + "@" + row + "," + column;
+            }
+
+            @Override
+            public Component render(String model) {
+                return new Paragraph(model);
+            }
+        });
+        final List<String> items = new ArrayList<>();
+        for(int index = 0; index < 50; index++)
+            items.add("item" + index);
+        this.grid.setItems(items);
+        Assert.assertEquals(50, prepared.size());
+        Assert.assertEquals(50, this.grid.size());
+        for(int index = 0; index < 50; index++) {
+            final CellInformation<String> cell = this.grid.getCellInformation(index / 3, index % 3).orElseThrow(AssertionError::new);
+            Assert.assertEquals(items.get(index), cell.getValue());
+            Assert.assertEquals(items.get(index) + "@" + (index / 3) + "," + (index % 3), ((Paragraph) cell.getComponent()).getText());
+        }
+
+        this.grid.addItems("extra1", "extra2");
+        Assert.assertEquals(52, prepared.size());
+        Assert.assertEquals("extra2@17,0", ((Paragraph) this.grid.getCellInformation(17, 0).orElseThrow(AssertionError::new).getComponent()).getText());
+    }
+
+    @Test
+    public void testTwoPhaseCellGeneratorWithAsyncCellGeneration() {
+        UI.getCurrent().add(this.grid);
+        final List<String> prepared = Collections.synchronizedList(new ArrayList<>());
+        final List<Runnable> tasks = new ArrayList<>();
+        this.grid.setCellGenerator(new TwoPhaseCellGenerator<String, String>() {
+            @Override
+            public String prepare(String value, int row, int column) {
+                prepared.add(value);
+                return value;
+            }
+
+            @Override
+            public Component render(String model) {
+                return new Paragraph(model);
+            }
+        });
+        this.grid.setAsyncConcurrencyLimit(5);
+        this.grid.setAsyncCellGeneration(tasks::add);
+        this.grid.setItems("a", "b", "c");
+        // nothing is prepared up front, each cell goes through both phases in the background
+        Assert.assertTrue(prepared.isEmpty());
+        Assert.assertEquals(3, this.grid.getPendingCellCount());
+        tasks.forEach(Runnable::run);
+        MockVaadin.runUIQueue();
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), prepared);
+        Assert.assertTrue(this.grid.getCellComponents().allMatch(Paragraph.class::isInstance));
+    }
+
+    /**
+     * Runs tasks scheduled before the response to the client and collects calls of {@code updateItems} on {@link ItemGrid.TemplateCellsElement}.
+     * @return Parameters of each call; the first one is the element itself.
+     */
+    private static List<List<Object>> templateItemUpdates() {
+        final UIInternals internals = UI.getCurrent().getInternals();
+        internals.getStateTree().runExecutionsBeforeClientResponse();
+        return internals.dumpPendingJavaScriptInvocations().stream()
+                .map(PendingJavaScriptInvocation::getInvocation)
+                .filter(invocation -> invocation.getExpression().contains("updateItems"))
+                .map(invocation -> invocation.getParameters())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testTemplateRenderingHasNoCellComponents() {
+        UI.getCurrent().add(this.grid);
+        this.grid.setItems("a", "b", "c", "d");
+        this.grid.setTemplateRendering("<b>[[name]]</b>", item -> {
+            final JsonObject result = Json.createObject();
+            result.put("name", item);
+            return result;
+        });
+        Assert.assertTrue(this.grid.isTemplateRendering());
+        Assert.assertEquals(4, this.grid.size());
+        Assert.assertEquals(2, this.grid.getRowCount());
+        Assert.assertEquals(0, this.grid.getCellComponents().count());
+        final ItemGrid.TemplateCellsElement templateCells = this.grid.getChildren().filter(ItemGrid.TemplateCellsElement.class::isInstance).map(ItemGrid.TemplateCellsElement.class::cast).findFirst().orElseThrow(AssertionError::new);
+
+        this.grid.simulateCellClick(0, 1);
+        Assert.assertEquals("b", this.grid.getValue());
+        Assert.assertEquals(1, this.eventCounter);
+        List<List<Object>> updates = templateItemUpdates();
+        Assert.assertEquals("all items are sent at first", 1, updates.size());
+        Assert.assertEquals(0, updates.get(0).get(1));
+        final JsonArray items = (JsonArray) updates.get(0).get(2);
+        Assert.assertEquals(4, items.length());
+        Assert.assertEquals("c", items.getObject(2).getString("name"));
+        Assert.assertEquals(4, updates.get(0).get(3));
+        final JsonArray selected = (JsonArray) templateCells.getElement().getPropertyRaw("selected");
+        Assert.assertEquals(1, selected.length());
+        Assert.assertEquals(1, (int) selected.getNumber(0));
+
+        // only the appended item is sent
+        this.grid.addItems("e");
+        updates = templateItemUpdates();
+        Assert.assertEquals(1, updates.size());
+        Assert.assertEquals(4, updates.get(0).get(1));
+        Assert.assertEquals(1, ((JsonArray) updates.get(0).get(2)).length());
+        Assert.assertEquals("e", ((JsonArray) updates.get(0).get(2)).getObject(0).getString("name"));
+        Assert.assertEquals(5, updates.get(0).get(3));
+
+        // changing the selection sends no items
+        this.grid.setValue("a");
+        Assert.assertTrue(templateItemUpdates().isEmpty());
+        Assert.assertEquals(0, (int) ((JsonArray) templateCells.getElement().getPropertyRaw("selected")).getNumber(0));
+
+        this.grid.setTemplateRendering(null, null);
+        Assert.assertFalse(this.grid.isTemplateRendering());
+        Assert.assertEquals(5, this.grid.getCellComponents().count());
+        Assert.assertFalse(this.grid.getChildren().anyMatch(ItemGrid.TemplateCellsElement.class::isInstance));
+        Assert.assertEquals("b", this.grid.getValue());
+    }
+
+    @Test
+    public void testWindowedLayoutMaterialisesOnlyVisibleCells() {
+        final List<String> items = new ArrayList<>();
+        for(int row = 0; row < 100; row++)
+            for(int column = 0; column < 100; column++)
+                items.add("r" + row + "c" + column);
+        this.grid.setColumnCount(100);
+        this.grid.setItems(items);
+        this.grid.setWindowedLayout(50, 20, 1);
+        Assert.assertEquals(ItemGrid.LayoutMode.WINDOWED, this.grid.getLayoutMode());
+        Assert.assertEquals(10000, this.grid.size());
+        Assert.assertEquals(100, this.grid.getRowCount());
+        // nothing reported yet, so only the overscan around the top left corner
+        Assert.assertEquals(4, this.grid.getCellComponents().count());
+
+        this.grid.setValue("r13c12");
+        this.grid.simulateViewport(500, 200, 200, 100);
+        // columns 9 to 15, rows 9 to 16
+        Assert.assertEquals(7 * 8, this.grid.getCellComponents().count());
+        Assert.assertFalse(this.grid.getCellInformation(0, 0).map(CellInformation::getComponent).isPresent());
+        final CellInformation<String> farAway = this.grid.getCellInformation(50, 50).orElseThrow(AssertionError::new);
+        Assert.assertEquals("r50c50", farAway.getValue());
+        Assert.assertNull(farAway.getComponent());
+        final Component visible = this.grid.getCellInformation(12, 12).map(CellInformation::getComponent).orElseThrow(AssertionError::new);
+        Assert.assertEquals("600px", visible.getElement().getStyle().get("left"));
+        Assert.assertEquals("240px", visible.getElement().getStyle().get("top"));
+        final Component selected = this.grid.getCellInformation(13, 12).map(CellInformation::getComponent).orElseThrow(AssertionError::new);
+        Assert.assertTrue(selected.getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME));
+
+        this.grid.simulateCellClick(12, 12);
+        Assert.assertEquals("r12c12", this.grid.getValue());
+        this.grid.simulateViewport(0, 0, 200, 100);
+        Assert.assertEquals(6 * 7, this.grid.getCellComponents().count());
+        Assert.assertEquals("r12c12", this.grid.getValue());
+        Assert.assertTrue(this.grid.getCellComponents().noneMatch(component -> component.getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME)));
+
+        this.grid.setLayoutMode(ItemGrid.LayoutMode.ROWS);
+        Assert.assertEquals(10000, this.grid.getCellComponents().count());
+    }
+
+    @Test
+    public void testWindowedLayoutCancelsGenerationOfCellsScrolledPast() {
+        UI.getCurrent().add(this.grid);
+        final List<Runnable> tasks = new ArrayList<>();
+        this.grid.setCellGenerator((item, row, col) -> new Paragraph(item));
+        this.grid.setAsyncConcurrencyLimit(2);
+        this.grid.setAsyncCellGeneration(tasks::add);
+        this.grid.setColumnCount(100);
+        this.grid.setWindowedLayout(50, 20, 1);
+        this.grid.setItems(IntStream.range(0, 10000).mapToObj(String::valueOf).collect(Collectors.toList()));
+        // only the overscan around the top left corner
+        Assert.assertEquals(4, this.grid.getPendingCellCount());
+        Assert.assertEquals(2, tasks.size());
+
+        this.grid.simulateViewport(500, 200, 200, 100);
+        MockVaadin.runUIQueue();
+        Assert.assertTrue(((Future<?>) tasks.get(0)).isCancelled());
+        Assert.assertTrue(((Future<?>) tasks.get(1)).isCancelled());
+        Assert.assertEquals("only cells in the window are waiting", 7 * 8, this.grid.getPendingCellCount());
+        Assert.assertEquals("slots of cancelled cells are used by visible ones", 4, tasks.size());
+        tasks.get(2).run();
+        tasks.get(3).run();
+        MockVaadin.runUIQueue();
+        Assert.assertEquals(2, this.grid.getCellComponents().filter(Paragraph.class::isInstance).count());
+        Assert.assertEquals(7 * 8 - 2, this.grid.getPendingCellCount());
+    }
+
+    @Test
+    public void testInfiniteScrollSentinelInWindowedLayout() {
+        UI.getCurrent().add(this.grid);
+        final List<String> feed = IntStream.range(0, 100).mapToObj(String::valueOf).collect(Collectors.toList());
+        this.grid.setWindowedLayout(50, 20, 1);
+        this.grid.setInfiniteScroll((offset, limit) -> feed.subList(Math.min(offset, feed.size()), Math.min(offset + limit, feed.size())), 30);
+        Assert.assertEquals(30, this.grid.size());
+        Assert.assertFalse("sentinel should not be after the viewport", this.getInfiniteScrollSentinel().isPresent());
+
+        final Component viewport = this.grid.getChildren().findFirst().orElseThrow(AssertionError::new);
+        final ObservedField sentinel = viewport.getChildren().filter(ObservedField.class::isInstance).map(ObservedField.class::cast).findFirst().orElseThrow(AssertionError::new);
+        Assert.assertEquals("absolute", sentinel.getStyle().get("position"));
+        Assert.assertEquals("sentinel should be right below the last row", "200px", sentinel.getStyle().get("top"));
+
+        sentinel.setValue(true);
+        Assert.assertEquals(60, this.grid.size());
+        Assert.assertFalse("sentinel is re-added and reports visibility again", sentinel.getValue());
+        Assert.assertEquals(viewport, sentinel.getParent().orElse(null));
+        Assert.assertEquals("400px", sentinel.getStyle().get("top"));
+
+        // going back to rows puts the sentinel after the rows
+        this.grid.setLayoutMode(ItemGrid.LayoutMode.ROWS);
+        Assert.assertSame(sentinel, this.getInfiniteScrollSentinel().orElse(null));
+        Assert.assertNull(sentinel.getStyle().get("position"));
+    }
+
+    @Test
+    public void testClientSideSelection() {
+        this.grid.setItems("zero", "one", "two", "three", "four", "five");
+        this.grid.setClientSideSelection(true);
+        Assert.assertTrue(this.grid.isClientSideSelectionActive());
+        final Component container = this.grid.getChildren().findFirst().orElseThrow(AssertionError::new);
+        Assert.assertEquals("3", container.getElement().getAttribute("item-grid-client-selection"));
+        Assert.assertEquals("4", this.grid.getCellInformation(1, 1).orElseThrow(AssertionError::new).getComponent().getElement().getAttribute(ItemGrid.CELL_INDEX_ATTRIBUTE));
+
+        this.grid.simulateClientSideSelection(4);
+        Assert.assertEquals("four", this.grid.getValue());
+        Assert.assertEquals(1, this.eventCounter);
+        Assert.assertTrue(this.grid.getCellInformation(1, 1).orElseThrow(AssertionError::new).getComponent().getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME));
+        this.grid.simulateClientSideSelection(4);
+        Assert.assertEquals(1, this.eventCounter);
+        this.grid.simulateClientSideSelection(-1);
+        Assert.assertNull(this.grid.getValue());
+        Assert.assertEquals(2, this.eventCounter);
+        Assert.assertTrue(this.grid.getCellComponents().noneMatch(component -> component.getElement().getClassList().contains(ItemGrid.DEFAULT_SELECTED_ITEM_CLASS_NAME)));
+
+        // custom handlers go through the server
+        this.grid.setCellSelectionHandler(event -> {});
+        Assert.assertTrue(this.grid.isClientSideSelection());
+        Assert.assertFalse(this.grid.isClientSideSelectionActive());
+        Assert.assertFalse(container.getElement().hasAttribute("item-grid-client-selection"));
+        this.grid.simulateClientSideSelection(2);
+        Assert.assertNull(this.grid.getValue());
+        this.grid.simulateCellClick(0, 2);
+        Assert.assertEquals("two", this.grid.getValue());
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.vaadin.miki.superfields.lazyload;
+
+import com.github.mvysny.kaributesting.v10.MockVaadin;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.shared.Registration;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ComponentObserverRegistryTest {
+
+    private UI ui;
+
+    private ComponentObserverRegistry registry;
+
+    @Before
+    public void setUp() {
+        MockVaadin.setup();
+        this.ui = UI.getCurrent();
+        this.registry = ComponentObserverRegistry.get(this.ui);
+    }
+
+    @After
+    public void tearDown() {
+        MockVaadin.tearDown();
+    }
+
+    private List<ComponentObserver> observersInUI() {
+        return this.ui.getChildren()
+                .filter(ComponentObserver.class::isInstance)
+                .map(ComponentObserver.class::cast)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testRegistryIsKeptPerUI() {
+        Assert.assertSame(this.registry, ComponentObserverRegistry.get(this.ui));
+        Assert.assertEquals("no observer should be created before anything is observed", 0, this.registry.getObserverCount());
+        Assert.assertTrue(this.observersInUI().isEmpty());
+    }
+
+    @Test
+    public void testObserverIsSharedBetweenCompatibleConfigurations() {
+        final Span first = new Span("first");
+        final Span second = new Span("second");
+        final Span third = new Span("third");
+        this.ui.add(first, second, third);
+
+        this.registry.observe(first, event -> {});
+        this.registry.observe(second, event -> {}, null, "0px", new double[]{0.0d, 1.0d}, VisibilityTransition.FULLY_VISIBLE);
+        Assert.assertEquals("the same configuration must use the same observer", 1, this.registry.getObserverCount());
+        final List<ComponentObserver> observers = this.observersInUI();
+        Assert.assertEquals(1, observers.size());
+        Assert.assertTrue(observers.get(0).isObserving(first));
+        Assert.assertTrue(observers.get(0).isObserving(second));
+
+        this.registry.observe(third, event -> {}, null, "10px", null);
+        Assert.assertEquals("a different root margin requires a different observer", 2, this.registry.getObserverCount());
+        Assert.assertEquals(2, this.observersInUI().size());
+        Assert.assertFalse(observers.get(0).isObserving(third));
+    }
+
+    @Test
+    public void testEventsAreRoutedToListenerOfObservedComponent() {
+        final Span first = new Span("first");
+        final Span second = new Span("second");
+        this.ui.add(first, second);
+        final List<ComponentObservationEvent> firstEvents = new ArrayList<>();
+        final List<ComponentObservationEvent> secondEvents = new ArrayList<>();
+        this.registry.observe(first, firstEvents::add);
+        this.registry.observe(second, secondEvents::add);
+
+        final ComponentObserver observer = this.observersInUI().get(0);
+        ComponentUtil.fireEvent(observer, new ComponentObservationEvent(observer, second, 1.0d));
+        Assert.assertTrue(firstEvents.isEmpty());
+        Assert.assertEquals(1, secondEvents.size());
+        Assert.assertSame(second, secondEvents.get(0).getObservedComponent());
+
+        ComponentUtil.fireEvent(observer, new ComponentObservationEvent(observer, first, 0.0d));
+        Assert.assertEquals(1, firstEvents.size());
+        Assert.assertSame(first, firstEvents.get(0).getObservedComponent());
+        Assert.assertEquals(1, secondEvents.size());
+
+        // events about components no longer observed are not passed anywhere
+        this.ui.remove(first);
+        ComponentUtil.fireEvent(observer, new ComponentObservationEvent(observer, first, 1.0d));
+        Assert.assertEquals(1, firstEvents.size());
+        Assert.assertEquals(1, secondEvents.size());
+    }
+
+    @Test
+    public void testObserverIsRemovedWhenLastListenerIsGone() {
+        final Span first = new Span("first");
+        final Span second = new Span("second");
+        this.ui.add(first, second);
+        final Registration firstRegistration = this.registry.observe(first, event -> {});
+        this.registry.observe(second, event -> {});
+        final ComponentObserver observer = this.observersInUI().get(0);
+
+        firstRegistration.remove();
+        Assert.assertFalse(observer.isObserving(first));
+        Assert.assertEquals("observer must stay while something is observed", 1, this.registry.getObserverCount());
+        Assert.assertTrue(this.observersInUI().contains(observer));
+
+        // detaching the last observed component counts as removing its listener
+        this.ui.remove(second);
+        Assert.assertEquals(0, this.registry.getObserverCount());
+        Assert.assertTrue(this.observersInUI().isEmpty());
+        Assert.assertFalse(observer.getParent().isPresent());
+
+        // a new observation creates a new observer
+        this.ui.add(second);
+        this.registry.observe(second, event -> {});
+        Assert.assertEquals(1, this.registry.getObserverCount());
+        Assert.assertNotSame(observer, this.observersInUI().get(0));
+    }
+
+}
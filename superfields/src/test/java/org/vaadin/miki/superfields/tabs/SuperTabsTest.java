@@ -2,17 +2,32 @@ package org.vaadin.miki.superfields.tabs;
 
 import com.github.mvysny.kaributesting.v10.MockVaadin;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.tabs.Tab;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.server.VaadinSession;
+import com.vaadin.flow.shared.Registration;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class SuperTabsTest {
 
@@ -243,4 +258,620 @@ public class SuperTabsTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLazyContentGeneration() {
+        this.tabs.setTabContentGenerator(s -> {
+            this.contentGeneratorCount++;
+            return new Span(s);
+        });
+        this.tabs.setLazyContentGeneration(true);
+        final String first = "first", second = "second", third = "third";
+        this.tabs.addTab(first, second, third);
+        Assert.assertEquals(first, this.tabs.getValue());
+        Assert.assertEquals("only the selected tab should have contents", 1, this.contentGeneratorCount);
+        Assert.assertTrue(this.tabs.isTabContentsGenerated(first));
+        Assert.assertFalse(this.tabs.isTabContentsGenerated(second));
+        Assert.assertFalse(this.tabs.isTabContentsGenerated(third));
+
+        this.tabs.setValue(second);
+        Assert.assertEquals(2, this.contentGeneratorCount);
+        Assert.assertTrue(this.tabs.isTabContentsGenerated(second));
+        Assert.assertTrue(this.tabs.getTabContents(second).get().isVisible());
+        Assert.assertFalse(this.tabs.getTabContents(first).get().isVisible());
+
+        // going back does not generate anything
+        this.tabs.setValue(first);
+        Assert.assertEquals(2, this.contentGeneratorCount);
+
+        // requesting contents generates them and passes them to the handler
+        final Component contents = this.tabs.getTabContents(third).orElseThrow(AssertionError::new);
+        Assert.assertEquals(3, this.contentGeneratorCount);
+        Assert.assertTrue(contents.getParent().isPresent());
+        Assert.assertFalse(contents.isVisible());
+        Assert.assertSame(contents, this.tabs.getTabContents(third).get());
+        Assert.assertEquals(3, this.contentGeneratorCount);
+    }
+
+    @Test
+    public void testLazyContentNeverGeneratedForRemovedTab() {
+        this.tabs.setTabContentGenerator(s -> {
+            this.contentGeneratorCount++;
+            return new Span(s);
+        });
+        this.tabs.withLazyContentGeneration(true).addTab("first", "second");
+        this.tabs.removeTab("second");
+        this.tabs.setTabHandler(TabHandlers.REMOVING_HANDLER);
+        Assert.assertEquals(1, this.contentGeneratorCount);
+        Assert.assertFalse(this.tabs.isTabContentsGenerated("second"));
+    }
+
+    @Test
+    public void testIndexesFollowAddsAndRemovals() {
+        final List<String> values = IntStream.range(0, 500).mapToObj(i -> "tab"+i).collect(Collectors.toList());
+        this.tabs.addTabs(values);
+        Assert.assertEquals(values, this.tabs.getValues());
+        Assert.assertEquals("tab0", this.tabs.getValue());
+
+        this.tabs.removeTab("tab0");
+        this.tabs.removeTab("tab250");
+        this.tabs.removeTab("tab499");
+        Assert.assertEquals(497, this.tabs.size());
+        Assert.assertFalse(this.tabs.getTabHeader("tab250").isPresent());
+
+        // selection must use positions after the removals
+        for(String value: new String[]{"tab1", "tab249", "tab251", "tab498"}) {
+            this.tabs.setValue(value);
+            Assert.assertEquals(value, this.tabs.getValue());
+            Assert.assertSame(this.tabs.getTabHeader(value).orElseThrow(AssertionError::new), this.tabs.getTabHeader(this.tabs.getValue()).orElse(null));
+            Assert.assertTrue(this.tabs.getTabHeader(value).get().isSelected());
+        }
+
+        // re-adding a removed value puts it at the end
+        this.tabs.addTab("tab250");
+        Assert.assertEquals("tab250", this.tabs.getValues().get(this.tabs.size() - 1));
+        this.tabs.setValue("tab250");
+        Assert.assertEquals("tab250", this.tabs.getValue());
+    }
+
+    @Test
+    public void testSetItemsReconcilesTabs() {
+        this.tabs.setTabContentGenerator(s -> {
+            this.contentGeneratorCount++;
+            return new Span(s);
+        });
+        this.tabs.setItems(Arrays.asList("a", "b", "c", "d"));
+        Assert.assertEquals("setting items should trigger only one event", 1, this.eventCount);
+        Assert.assertEquals("a", this.tabs.getValue());
+        Assert.assertEquals(4, this.contentGeneratorCount);
+        this.tabs.setValue("c");
+        this.eventCount = 0;
+
+        final Tab headerOfC = this.tabs.getTabHeader("c").orElseThrow(AssertionError::new);
+        final Component contentsOfC = this.tabs.getTabContents("c").orElseThrow(AssertionError::new);
+
+        this.tabs.setItems(Arrays.asList("e", "c", "a", "e"));
+        Assert.assertEquals(Arrays.asList("e", "c", "a"), this.tabs.getValues());
+        Assert.assertEquals("only the new value should have contents generated", 5, this.contentGeneratorCount);
+        Assert.assertFalse(this.tabs.getTabHeader("b").isPresent());
+        Assert.assertFalse(this.tabs.getTabHeader("d").isPresent());
+        Assert.assertSame(headerOfC, this.tabs.getTabHeader("c").orElse(null));
+        Assert.assertSame(contentsOfC, this.tabs.getTabContents("c").orElse(null));
+        Assert.assertEquals("selected value survived, so there should be no event", 0, this.eventCount);
+        Assert.assertEquals("c", this.tabs.getValue());
+        Assert.assertTrue(headerOfC.isSelected());
+        Assert.assertTrue(contentsOfC.isVisible());
+        Assert.assertFalse(this.tabs.getTabContents("e").get().isVisible());
+
+        // removing the selected value selects the first one, with one event
+        this.tabs.setItems(Arrays.asList("a", "e"));
+        Assert.assertEquals(1, this.eventCount);
+        Assert.assertEquals("a", this.tabs.getValue());
+        Assert.assertTrue(this.tabs.getTabContents("a").get().isVisible());
+        Assert.assertFalse(contentsOfC.getParent().isPresent());
+
+        this.tabs.setItems(Collections.emptyList());
+        Assert.assertEquals(2, this.eventCount);
+        Assert.assertNull(this.tabs.getValue());
+        Assert.assertEquals(0, this.tabs.size());
+    }
+
+    @Test
+    public void testEvictingTabHandler() {
+        this.tabs.setTabContentGenerator(s -> {
+            this.contentGeneratorCount++;
+            return new Span(s);
+        });
+        final EvictingTabHandler handler = new EvictingTabHandler(2).withStateHooks(
+                component -> ((Span) component).getText() + "!",
+                (component, state) -> ((Span) component).setText(state.toString())
+        );
+        this.tabs.setTabHandler(handler);
+        this.tabs.addTab("a", "b", "c", "d", "e");
+        Assert.assertEquals(5, this.contentGeneratorCount);
+        Assert.assertEquals(2, handler.getAliveContentsCount());
+        Assert.assertEquals(3, handler.getEvictionCount());
+        Assert.assertTrue("selected tab must never be evicted", this.tabs.isTabContentsGenerated("a"));
+        Assert.assertTrue(this.tabs.isTabContentsGenerated("e"));
+        Assert.assertFalse(this.tabs.isTabContentsGenerated("b"));
+
+        this.tabs.setValue("c");
+        Assert.assertEquals("evicted contents must be generated again", 6, this.contentGeneratorCount);
+        Assert.assertEquals(2, handler.getAliveContentsCount());
+        Assert.assertTrue(this.tabs.isTabContentsGenerated("a"));
+        Assert.assertTrue(this.tabs.isTabContentsGenerated("c"));
+        Assert.assertFalse("never selected contents are evicted first", this.tabs.isTabContentsGenerated("e"));
+        Assert.assertEquals("state must be restored", "c!", ((Span) this.tabs.getTabContents("c").get()).getText());
+        Assert.assertTrue(this.tabs.getTabContents("c").get().isVisible());
+
+        // a is still alive
+        this.tabs.setValue("a");
+        Assert.assertEquals(6, this.contentGeneratorCount);
+        Assert.assertEquals("a", ((Span) this.tabs.getTabContents("a").get()).getText());
+
+        // now c is the least recently selected one
+        this.tabs.setValue("b");
+        Assert.assertEquals(7, this.contentGeneratorCount);
+        Assert.assertFalse(this.tabs.isTabContentsGenerated("c"));
+        Assert.assertTrue(this.tabs.isTabContentsGenerated("a"));
+
+        // contents that cannot be generated again stay alive
+        this.tabs.addTab("f", new Tab("f"), new Span("f"));
+        this.tabs.setValue("f");
+        Assert.assertTrue(this.tabs.isTabContentsGenerated("f"));
+    }
+
+    @Test
+    public void testPrefetchingAdjacentTabs() {
+        final List<String> prepared = new ArrayList<>();
+        this.tabs.setTabContentGenerator(new TwoPhaseTabContentGenerator<String, String>() {
+            @Override
+            public String prepare(String object) {
+                prepared.add(object);
+                return object.toUpperCase();
+            }
+
+            @Override
+            public Component render(String model) {
+                contentGeneratorCount++;
+                return new Span(model);
+            }
+        });
+        UI.getCurrent().add(this.tabs);
+        this.tabs.withLazyContentGeneration(true).withContentPrefetching(Runnable::run).addTab("a", "b", "c", "d");
+        Assert.assertTrue(this.tabs.isContentPrefetching());
+        Assert.assertEquals(Collections.singletonList("a"), prepared);
+
+        this.tabs.setValue("b");
+        // c is being prefetched, a is already there
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), prepared);
+        Assert.assertFalse("contents must be attached in UI.access", this.tabs.isTabContentsGenerated("c"));
+        MockVaadin.runUIQueue();
+        Assert.assertTrue(this.tabs.isTabContentsGenerated("c"));
+        Assert.assertEquals(3, this.contentGeneratorCount);
+        Assert.assertFalse("prefetched contents are not shown", this.tabs.getTabContents("c").get().isVisible());
+
+        this.tabs.setValue("c");
+        Assert.assertEquals("no generation should happen for prefetched contents", 3, this.contentGeneratorCount);
+        Assert.assertTrue(this.tabs.getTabContents("c").get().isVisible());
+        Assert.assertEquals("C", ((Span) this.tabs.getTabContents("c").get()).getText());
+        MockVaadin.runUIQueue();
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), prepared);
+        Assert.assertTrue(this.tabs.isTabContentsGenerated("d"));
+    }
+
+    @Test
+    public void testPrefetchingIsRetriedAfterUIWasDetached() {
+        final List<Runnable> tasks = new ArrayList<>();
+        final UI ui = UI.getCurrent();
+        ui.add(this.tabs);
+        this.tabs.withLazyContentGeneration(true).withContentPrefetching(tasks::add).addTab("a", "b", "c");
+        Assert.assertEquals("b should be prefetched", 1, tasks.size());
+
+        // finishing prefetching while there is no session fails to access the UI
+        final VaadinSession session = ui.getSession();
+        ui.getInternals().setSession(null);
+        tasks.get(0).run();
+        ui.getInternals().setSession(session);
+        Assert.assertFalse(this.tabs.isTabContentsGenerated("b"));
+
+        // b must not be stuck as being prefetched
+        this.tabs.setValue("c");
+        Assert.assertEquals("b should be prefetched again", 2, tasks.size());
+        tasks.get(1).run();
+        MockVaadin.runUIQueue();
+        Assert.assertTrue(this.tabs.isTabContentsGenerated("b"));
+    }
+
+    @Test
+    public void testClientSideSwitching() {
+        this.tabs.withClientSideSwitching(true).addTab("a", "b", "c");
+        Assert.assertTrue(this.tabs.isClientSideSwitching());
+        Assert.assertFalse("visibility handler does not allow switching in the browser", this.tabs.isClientSideSwitchingActive());
+
+        this.tabs.setTabHandler(TabHandlers.HIDDEN_ATTRIBUTE_HANDLER);
+        Assert.assertTrue(this.tabs.isClientSideSwitchingActive());
+        for(String value: new String[]{"a", "b", "c"}) {
+            final Tab header = this.tabs.getTabHeader(value).orElseThrow(AssertionError::new);
+            final Component contents = this.tabs.getTabContents(value).orElseThrow(AssertionError::new);
+            Assert.assertTrue(header.getElement().hasAttribute(SuperTabs.TAB_KEY_ATTRIBUTE));
+            Assert.assertEquals(header.getElement().getAttribute(SuperTabs.TAB_KEY_ATTRIBUTE), contents.getElement().getAttribute(SuperTabs.CONTENTS_KEY_ATTRIBUTE));
+            Assert.assertTrue("contents must be in the browser", contents.isVisible());
+            Assert.assertEquals(!value.equals("a"), contents.getElement().hasAttribute("hidden"));
+        }
+
+        // the server still handles selection
+        this.tabs.setValue("c");
+        Assert.assertFalse(this.tabs.getTabContents("c").get().getElement().hasAttribute("hidden"));
+        Assert.assertTrue(this.tabs.getTabContents("a").get().getElement().hasAttribute("hidden"));
+
+        // new contents are marked as well
+        this.tabs.addTab("d");
+        Assert.assertNotNull(this.tabs.getTabContents("d").get().getElement().getAttribute(SuperTabs.CONTENTS_KEY_ATTRIBUTE));
+        Assert.assertNotEquals(this.tabs.getTabContents("c").get().getElement().getAttribute(SuperTabs.CONTENTS_KEY_ATTRIBUTE), this.tabs.getTabContents("d").get().getElement().getAttribute(SuperTabs.CONTENTS_KEY_ATTRIBUTE));
+
+        this.tabs.setClientSideSwitching(false);
+        Assert.assertFalse(this.tabs.isClientSideSwitchingActive());
+    }
+
+    @Test
+    public void testHeaderWindow() {
+        final List<String> values = IntStream.range(0, 1000).mapToObj(i -> "tab"+i).collect(Collectors.toList());
+        this.tabs.withHeaderWindowSize(10).addTabs(values);
+        Assert.assertTrue(this.tabs.isHeaderWindowed());
+        Assert.assertEquals(1000, this.tabs.size());
+        Assert.assertEquals("tab0", this.tabs.getValue());
+        Assert.assertTrue(this.tabs.getTabHeader("tab9").orElseThrow(AssertionError::new).getParent().isPresent());
+        final Tab farHeader = this.tabs.getTabHeader("tab500").orElseThrow(AssertionError::new);
+        Assert.assertFalse("headers outside of the window must not be in the strip", farHeader.getParent().isPresent());
+
+        this.eventCount = 0;
+        this.tabs.setValue("tab500");
+        Assert.assertEquals(1, this.eventCount);
+        Assert.assertEquals("tab500", this.tabs.getValue());
+        Assert.assertTrue(farHeader.getParent().isPresent());
+        Assert.assertTrue(farHeader.isSelected());
+        Assert.assertTrue(this.tabs.getTabContents("tab500").get().isVisible());
+        Assert.assertFalse(this.tabs.getTabContents("tab0").get().isVisible());
+        Assert.assertFalse(this.tabs.getTabHeader("tab0").get().getParent().isPresent());
+
+        // removing a tab before the window keeps the selection
+        this.tabs.removeTab("tab1");
+        Assert.assertEquals("tab500", this.tabs.getValue());
+        Assert.assertTrue(farHeader.isSelected());
+
+        // turning the window off shows all headers
+        this.tabs.setHeaderWindowSize(0);
+        Assert.assertEquals("tab500", this.tabs.getValue());
+        Assert.assertTrue(this.tabs.getTabHeader("tab0").get().getParent().isPresent());
+        Assert.assertTrue(farHeader.isSelected());
+        this.tabs.setValue("tab2");
+        Assert.assertEquals("tab2", this.tabs.getValue());
+    }
+
+    private static int serializedContentGeneratorCount = 0;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerializationKeepsValuesAndSkipsDetachedContents() throws IOException, ClassNotFoundException {
+        serializedContentGeneratorCount = 0;
+        final SuperTabs<String> original = new SuperTabs<>((TabContentGenerator<String>) s -> {
+            serializedContentGeneratorCount++;
+            return new Span(s);
+        });
+        original.setTabHandler(TabHandlers.REMOVING_HANDLER);
+        original.addTab("a", "b", "c");
+        original.setValue("b");
+        Assert.assertEquals(3, serializedContentGeneratorCount);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(original);
+        }
+        final SuperTabs<String> copy;
+        try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (SuperTabs<String>) in.readObject();
+        }
+
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), copy.getValues());
+        Assert.assertEquals("b", copy.getValue());
+        Assert.assertTrue(copy.getTabHeader("c").isPresent());
+        Assert.assertTrue("attached contents must be kept", copy.isTabContentsGenerated("b"));
+        Assert.assertFalse("detached contents must not be serialized", copy.isTabContentsGenerated("a"));
+        Assert.assertEquals(3, serializedContentGeneratorCount);
+
+        copy.setValue("a");
+        Assert.assertEquals("a", copy.getValue());
+        Assert.assertEquals("detached contents must be generated again", 4, serializedContentGeneratorCount);
+        Assert.assertTrue(copy.getTabContents("a").get().getParent().isPresent());
+        copy.removeTab("c");
+        Assert.assertEquals(Arrays.asList("a", "b"), copy.getValues());
+    }
+
+    @Test
+    public void testTimingListeners() {
+        final List<String> recorded = new ArrayList<>();
+        final TabTimingStatistics statistics = new TabTimingStatistics(2);
+        this.tabs.addTimingListener(statistics);
+        final Registration registration = this.tabs.addTimingListener((value, stage, duration) -> {
+            Assert.assertTrue(duration >= 0);
+            recorded.add(stage + ":" + value);
+        });
+        this.tabs.addTab("a", "b");
+        Assert.assertTrue(recorded.contains("HEADER_GENERATION:a"));
+        Assert.assertTrue(recorded.contains("CONTENT_GENERATION:b"));
+        Assert.assertTrue(recorded.contains("TAB_ADDED:b"));
+        Assert.assertTrue(recorded.contains("TAB_SELECTED:a"));
+        Assert.assertTrue(recorded.contains("VALUE_UPDATE:a"));
+
+        recorded.clear();
+        this.tabs.setValue("b");
+        Assert.assertTrue(recorded.contains("TAB_DESELECTED:a"));
+        Assert.assertTrue(recorded.contains("TAB_SELECTED:b"));
+        this.tabs.removeTab("a");
+        Assert.assertTrue(recorded.contains("TAB_REMOVED:a"));
+
+        Assert.assertEquals(2, statistics.getCount(TabLifecycleStage.HEADER_GENERATION));
+        Assert.assertEquals(2, statistics.getCount(TabLifecycleStage.TAB_SELECTED));
+        Assert.assertTrue(statistics.get99thPercentile(TabLifecycleStage.TAB_SELECTED) >= statistics.getMedian(TabLifecycleStage.TAB_SELECTED));
+        Assert.assertEquals(2, statistics.getCount(TabLifecycleStage.TAB_ADDED));
+
+        registration.remove();
+        recorded.clear();
+        this.tabs.addTab("c");
+        Assert.assertTrue(recorded.isEmpty());
+        Assert.assertEquals(3, statistics.getCount(TabLifecycleStage.HEADER_GENERATION));
+    }
+
+    @Test
+    public void testTimingStatisticsPercentiles() {
+        final TabTimingStatistics statistics = new TabTimingStatistics(100);
+        Assert.assertEquals(0, statistics.getMedian(TabLifecycleStage.VALUE_UPDATE));
+        for(long duration = 1; duration <= 200; duration++)
+            statistics.stageFinished("x", TabLifecycleStage.VALUE_UPDATE, duration);
+        Assert.assertEquals(200, statistics.getCount(TabLifecycleStage.VALUE_UPDATE));
+        // only the last 100 durations (101-200) are in the window
+        Assert.assertEquals(150, statistics.getMedian(TabLifecycleStage.VALUE_UPDATE));
+        Assert.assertEquals(199, statistics.get99thPercentile(TabLifecycleStage.VALUE_UPDATE));
+        statistics.reset();
+        Assert.assertEquals(0, statistics.getCount(TabLifecycleStage.VALUE_UPDATE));
+    }
+
+    @Test
+    public void testAsyncContentGenerationWithPlaceholders() {
+        final Map<String, CompletableFuture<Component>> futures = new HashMap<>();
+        this.tabs.setTabContentGenerator((AsyncTabContentGenerator<String>) value -> futures.computeIfAbsent(value, v -> new CompletableFuture<>()));
+        UI.getCurrent().add(this.tabs);
+        this.tabs.addTab("a", "b", "c");
+        Assert.assertEquals("a", this.tabs.getValue());
+        Assert.assertEquals(3, futures.size());
+        Assert.assertTrue(this.tabs.isTabContentsLoading("a"));
+        final Component placeholder = this.tabs.getTabContents("a").orElseThrow(AssertionError::new);
+        Assert.assertTrue(placeholder.getElement().getClassList().contains(SuperTabs.PLACEHOLDER_CONTENTS_CLASS_NAME));
+        Assert.assertTrue(placeholder.isVisible());
+
+        final Span contentsOfA = new Span("a");
+        futures.get("a").complete(contentsOfA);
+        Assert.assertTrue("contents must be swapped in UI.access", this.tabs.isTabContentsLoading("a"));
+        MockVaadin.runUIQueue();
+        Assert.assertFalse(this.tabs.isTabContentsLoading("a"));
+        Assert.assertSame(contentsOfA, this.tabs.getTabContents("a").orElse(null));
+        Assert.assertTrue(contentsOfA.isVisible());
+        Assert.assertTrue(contentsOfA.getParent().isPresent());
+        Assert.assertFalse(placeholder.getParent().isPresent());
+
+        // removing a tab cancels its generation
+        final CompletableFuture<Component> futureOfB = futures.get("b");
+        this.tabs.removeTab("b");
+        Assert.assertTrue(futureOfB.isCancelled());
+
+        // a result for a deselected tab is not shown
+        final Span contentsOfC = new Span("c");
+        futures.get("c").complete(contentsOfC);
+        MockVaadin.runUIQueue();
+        Assert.assertSame(contentsOfC, this.tabs.getTabContents("c").orElse(null));
+        Assert.assertFalse(contentsOfC.isVisible());
+        Assert.assertEquals("a", this.tabs.getValue());
+    }
+
+    @Test
+    public void testFailedAsyncContentGenerationIsNotCached() {
+        final Map<String, CompletableFuture<Component>> futures = new HashMap<>();
+        final TabContentCache cache = new TabContentCache();
+        this.tabs.setTabContentGenerator((AsyncTabContentGenerator<String>) value -> futures.computeIfAbsent(value, v -> new CompletableFuture<>()));
+        this.tabs.setContentCache(cache, null);
+        UI.getCurrent().add(this.tabs);
+        this.tabs.addTab("a", "b");
+        final Component placeholder = this.tabs.getTabContents("b").orElseThrow(AssertionError::new);
+
+        futures.get("b").completeExceptionally(new IllegalStateException("expected failure"));
+        MockVaadin.runUIQueue();
+        Assert.assertFalse(this.tabs.isTabContentsLoading("b"));
+        Assert.assertFalse("failed contents must be generated again", this.tabs.isTabContentsGenerated("b"));
+        Assert.assertFalse(placeholder.getParent().isPresent());
+
+        // nothing to put in the cache
+        this.tabs.removeTab("b");
+        Assert.assertFalse(cache.contains("b"));
+
+        // generation starts again when the tab is selected
+        this.tabs.addTab("c");
+        futures.get("c").completeExceptionally(new IllegalStateException("expected failure"));
+        MockVaadin.runUIQueue();
+        futures.remove("c");
+        this.tabs.setValue("c");
+        Assert.assertTrue(this.tabs.isTabContentsLoading("c"));
+        Assert.assertTrue(futures.containsKey("c"));
+    }
+
+    private static int serializedAsyncGeneratorCount = 0;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerializationDiscardsPlaceholdersAndPrefetching() throws IOException, ClassNotFoundException {
+        serializedAsyncGeneratorCount = 0;
+        final SuperTabs<String> original = new SuperTabs<>((AsyncTabContentGenerator<String>) value -> {
+            serializedAsyncGeneratorCount++;
+            return new CompletableFuture<>();
+        });
+        original.setContentPrefetching(Runnable::run);
+        UI.getCurrent().add(original);
+        original.addTab("a", "b");
+        Assert.assertTrue(original.isTabContentsLoading("a"));
+        Assert.assertEquals(2, serializedAsyncGeneratorCount);
+        UI.getCurrent().remove(original);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(original);
+        }
+        final SuperTabs<String> copy;
+        try(ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (SuperTabs<String>) in.readObject();
+        }
+
+        Assert.assertFalse("executor is not serialized", copy.isContentPrefetching());
+        Assert.assertFalse(copy.isTabContentsGenerated("a"));
+        Assert.assertFalse(copy.isTabContentsLoading("a"));
+        Assert.assertTrue("placeholders must be removed", copy.getElement().getChildren().flatMap(Element::getChildren)
+                .noneMatch(element -> element.getClassList().contains(SuperTabs.PLACEHOLDER_CONTENTS_CLASS_NAME)));
+
+        // contents of the selected tab are generated again when attached
+        UI.getCurrent().add(copy);
+        Assert.assertEquals("a", copy.getValue());
+        Assert.assertTrue(copy.isTabContentsLoading("a"));
+        Assert.assertFalse(copy.isTabContentsGenerated("b"));
+        Assert.assertEquals(3, serializedAsyncGeneratorCount);
+        Assert.assertEquals(1, copy.getElement().getChildren().flatMap(Element::getChildren)
+                .filter(element -> element.getClassList().contains(SuperTabs.PLACEHOLDER_CONTENTS_CLASS_NAME)).count());
+    }
+
+    @Test
+    public void testSharedContentCache() {
+        final TabContentCache cache = new TabContentCache().withCapacity(2);
+        final TabContentGenerator<String> generator = value -> {
+            this.contentGeneratorCount++;
+            return new Span(value);
+        };
+        this.tabs.setTabContentGenerator(generator);
+        this.tabs.setContentCache(cache, value -> "test-" + value);
+        this.tabs.addTab("a", "b");
+        Assert.assertEquals(2, this.contentGeneratorCount);
+        Assert.assertEquals("contents in use are not in the cache", 0, cache.size());
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(2, cache.getMissCount());
+
+        // another instance does not get contents used by the first one
+        final SuperTabs<String> other = new SuperTabs<String>(generator).withContentCache(cache, value -> "test-" + value);
+        other.addTab("a", "b");
+        Assert.assertEquals(4, this.contentGeneratorCount);
+        final Component contentsOfA = this.tabs.getTabContents("a").orElseThrow(AssertionError::new);
+        Assert.assertNotSame(contentsOfA, other.getTabContents("a").orElse(null));
+        Assert.assertTrue(contentsOfA.getParent().isPresent());
+        Assert.assertTrue(other.getTabContents("a").orElseThrow(AssertionError::new).getParent().isPresent());
+
+        // contents of a removed tab go to the cache and are taken out of it when reused
+        this.tabs.removeTab("a");
+        Assert.assertFalse(contentsOfA.getParent().isPresent());
+        Assert.assertTrue(cache.contains("test-a"));
+        final SuperTabs<String> another = new SuperTabs<String>(generator).withContentCache(cache, value -> "test-" + value);
+        another.addTab("a");
+        Assert.assertEquals(4, this.contentGeneratorCount);
+        Assert.assertSame(contentsOfA, another.getTabContents("a").orElse(null));
+        Assert.assertTrue(contentsOfA.getParent().isPresent());
+        Assert.assertFalse(cache.contains("test-a"));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(0.2d, cache.getHitRate(), 0.0001d);
+
+        // invalidation forces generation
+        this.tabs.removeTab("b");
+        Assert.assertTrue(cache.contains("test-b"));
+        cache.invalidate("test-b");
+        Assert.assertFalse(cache.contains("test-b"));
+        another.addTab("b");
+        Assert.assertEquals(5, this.contentGeneratorCount);
+
+        // least recently used contents are removed when the cache is full
+        other.removeTab("a");
+        other.removeTab("b");
+        this.tabs.addTab("c");
+        this.tabs.removeTab("c");
+        Assert.assertEquals(6, this.contentGeneratorCount);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertFalse(cache.contains("test-a"));
+        Assert.assertTrue(cache.contains("test-b"));
+        Assert.assertTrue(cache.contains("test-c"));
+
+        // turning off caching
+        other.setContentCache(null, null);
+        Assert.assertFalse(other.getContentCache().isPresent());
+        other.addTab("b");
+        Assert.assertEquals(7, this.contentGeneratorCount);
+        other.removeTab("b");
+        Assert.assertTrue(cache.contains("test-b"));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testSetItemsReturnsRemovedContentsToCache() {
+        final TabContentCache cache = new TabContentCache();
+        this.tabs.setContentCache(cache, null);
+        this.tabs.addTab("a", "b", "c");
+        final Component contentsOfB = this.tabs.getTabContents("b").orElseThrow(AssertionError::new);
+        this.tabs.setItems(Arrays.asList("a", "c"));
+        Assert.assertTrue(cache.contains("b"));
+        Assert.assertFalse(cache.contains("a"));
+        Assert.assertFalse(contentsOfB.getParent().isPresent());
+    }
+
+    @Test
+    public void testDetachedContentsAreUsedByNewInstance() {
+        final TabContentCache cache = new TabContentCache();
+        final TabContentGenerator<String> generator = value -> {
+            this.contentGeneratorCount++;
+            return new Span(value);
+        };
+        final SuperTabs<String> first = new SuperTabs<String>(generator).withContentCache(cache, null);
+        UI.getCurrent().add(first);
+        first.addTab("a", "b");
+        final Component contentsOfA = first.getTabContents("a").orElseThrow(AssertionError::new);
+        Assert.assertEquals(2, this.contentGeneratorCount);
+        Assert.assertEquals(0, cache.size());
+
+        // navigating away lends the contents to the cache
+        UI.getCurrent().remove(first);
+        Assert.assertEquals(2, cache.size());
+
+        // coming back creates a new instance, which uses them
+        final SuperTabs<String> second = new SuperTabs<String>(generator).withContentCache(cache, null);
+        UI.getCurrent().add(second);
+        second.addTab("a", "b");
+        Assert.assertEquals(2, this.contentGeneratorCount);
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(0, cache.size());
+        Assert.assertSame(contentsOfA, second.getTabContents("a").orElse(null));
+
+        // the old instance, attached again, does not get contents used by the new one
+        UI.getCurrent().add(first);
+        Assert.assertEquals(3, this.contentGeneratorCount);
+        Assert.assertNotSame(contentsOfA, first.getTabContents("a").orElse(null));
+        Assert.assertFalse(first.isTabContentsGenerated("b"));
+        Assert.assertSame(contentsOfA, second.getTabContents("a").orElse(null));
+        Assert.assertTrue(contentsOfA.getParent().isPresent());
+
+        // detaching and attaching again takes the contents back from the cache
+        UI.getCurrent().remove(second);
+        Assert.assertTrue(cache.contains("a"));
+        UI.getCurrent().add(second);
+        Assert.assertFalse(cache.contains("a"));
+        Assert.assertSame(contentsOfA, second.getTabContents("a").orElse(null));
+        Assert.assertEquals(3, this.contentGeneratorCount);
+    }
+
+    @Test
+    public void testContentCacheIsKeptPerUI() {
+        final TabContentCache cache = TabContentCache.forCurrentUI();
+        Assert.assertSame(cache, TabContentCache.forCurrentUI());
+        Assert.assertSame(cache, ComponentUtil.getData(UI.getCurrent(), TabContentCache.class));
+    }
+
+}